@@ -0,0 +1,298 @@
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Locale;
+import java.util.SplittableRandom;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+// Non-interactive soak run: plays a fixed number of rounds through GameEngine and reports throughput,
+// per-round latency, allocation and standings as JSON or CSV. Each thread drives its own engine with
+// the same roster, so standings are summed per seat across threads.
+public class BatchRunner {
+    static final int MAX_PLAYERS = 1 << 20;
+    static final int MAX_THREADS = 1 << 12;
+    private static final String USAGE = "Usage: java BatchRunner <players> <rounds> [seed] [threads] [json|csv] [rng]";
+    private int players;
+    private long rounds;
+    private long seed;
+    private int threads;
+    private Dice.Rng rng;
+    public BatchRunner(int players, long rounds, long seed, int threads, Dice.Rng rng) {
+        if (players < 1 || players > MAX_PLAYERS) {
+            throw new IllegalArgumentException("Players must be between 1 and " + MAX_PLAYERS + ": " + players);
+        }
+        if (threads < 1 || threads > MAX_THREADS) {
+            throw new IllegalArgumentException("Threads must be between 1 and " + MAX_THREADS + ": " + threads);
+        }
+        // Each worker's GameEngine numbers its rounds with an int.
+        if (rounds < 0 || rounds / threads + (rounds % threads == 0 ? 0 : 1) > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Rounds must be between 0 and " + Integer.MAX_VALUE + " per thread: " + rounds);
+        }
+        this.players = players;
+        this.rounds = rounds;
+        this.seed = seed;
+        this.threads = threads;
+        this.rng = rng;
+    }
+    public Result run() throws InterruptedException {
+        SplittableRandom master = new SplittableRandom(seed);
+        ArrayList<Worker> workers = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            long share = rounds / threads + (t < rounds % threads ? 1 : 0);
+            long streamSeed = master.nextLong();
+            workers.add(new Worker(new Dice(rng.isSeedable() ? rng.create(streamSeed) : rng.create()), share));
+        }
+        ExecutorService executor = Threads.perTaskExecutor("batch-", false);
+        long start = System.nanoTime();
+        try {
+            ArrayList<Future<?>> futures = new ArrayList<>();
+            for (Worker worker : workers) {
+                futures.add(executor.submit(worker));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Batch worker failed", e.getCause());
+        } finally {
+            executor.shutdown();
+        }
+        long elapsed = System.nanoTime() - start;
+        LatencyHistogram latency = new LatencyHistogram();
+        long[] wins = new long[players];
+        long allocated = 0;
+        for (Worker worker : workers) {
+            latency.add(worker.latency);
+            for (int i = 0; i < players; i++) {
+                wins[i] += worker.engine.getPlayers().get(i).showWins();
+            }
+            if (allocated >= 0) {
+                allocated = worker.allocatedBytes < 0 ? -1 : allocated + worker.allocatedBytes;
+            }
+        }
+        return new Result(this, elapsed, latency, allocated, wins);
+    }
+    private class Worker implements Runnable {
+        private GameEngine engine;
+        private long rounds;
+        private LatencyHistogram latency = new LatencyHistogram();
+        private long allocatedBytes;
+        Worker(Dice dice, long rounds) {
+            ArrayList<Player> list = new ArrayList<>();
+            for (int i = 0; i < players; i++) {
+                list.add(new Player("P" + (i + 1)));
+            }
+            this.engine = new GameEngine(list, dice);
+            this.rounds = rounds;
+        }
+        @Override
+        public void run() {
+            long before = allocatedBytes();
+            for (long r = 0; r < rounds; r++) {
+                long t0 = System.nanoTime();
+                engine.playRound();
+                latency.record(System.nanoTime() - t0);
+            }
+            long after = allocatedBytes();
+            allocatedBytes = before < 0 || after < 0 ? -1 : after - before;
+        }
+    }
+    // Bytes allocated so far by the calling thread, or -1 when the JVM cannot tell.
+    private static long allocatedBytes() {
+        java.lang.management.ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+        if (bean instanceof com.sun.management.ThreadMXBean) {
+            com.sun.management.ThreadMXBean hotspot = (com.sun.management.ThreadMXBean) bean;
+            if (hotspot.isThreadAllocatedMemorySupported() && hotspot.isThreadAllocatedMemoryEnabled()) {
+                return hotspot.getCurrentThreadAllocatedBytes();
+            }
+        }
+        return -1;
+    }
+    public static class Result {
+        private BatchRunner config;
+        private long elapsedNanos;
+        private LatencyHistogram latency;
+        private long allocatedBytes;
+        private long[] wins;
+        Result(BatchRunner config, long elapsedNanos, LatencyHistogram latency, long allocatedBytes, long[] wins) {
+            this.config = config;
+            this.elapsedNanos = elapsedNanos;
+            this.latency = latency;
+            this.allocatedBytes = allocatedBytes;
+            this.wins = wins;
+        }
+        public long getElapsedNanos() { return elapsedNanos; }
+        public double getRoundsPerSecond() { return elapsedNanos == 0 ? 0 : config.rounds * 1e9 / elapsedNanos; }
+        public long getLatencyPercentile(double percentile) { return latency.percentile(percentile); }
+        public long getMaxLatency() { return latency.max(); }
+        public long getAllocatedBytes() { return allocatedBytes; }
+        public double getAllocationRate() {
+            return allocatedBytes < 0 || elapsedNanos == 0 ? -1 : allocatedBytes * 1e9 / elapsedNanos / (1024 * 1024);
+        }
+        public long getWins(int seat) { return wins[seat]; }
+        public long getTies() {
+            long ties = config.rounds;
+            for (long w : wins) {
+                ties -= w;
+            }
+            return ties;
+        }
+        // Seat indices ordered by wins, most first.
+        private Integer[] standings() {
+            Integer[] order = new Integer[wins.length];
+            for (int i = 0; i < order.length; i++) {
+                order[i] = i;
+            }
+            Arrays.sort(order, (a, b) -> Long.compare(wins[b], wins[a]));
+            return order;
+        }
+        public String toJson() {
+            StringBuilder sb = new StringBuilder("{\n");
+            sb.append("  \"players\": ").append(config.players).append(",\n");
+            sb.append("  \"rounds\": ").append(config.rounds).append(",\n");
+            sb.append("  \"threads\": ").append(config.threads).append(",\n");
+            sb.append("  \"seed\": ").append(config.seed).append(",\n");
+            sb.append("  \"rng\": \"").append(config.rng.name()).append("\",\n");
+            sb.append("  \"elapsedMillis\": ").append(format(elapsedNanos / 1e6)).append(",\n");
+            sb.append("  \"roundsPerSecond\": ").append(format(getRoundsPerSecond())).append(",\n");
+            sb.append("  \"latencyNanos\": {\"p50\": ").append(getLatencyPercentile(50))
+                    .append(", \"p99\": ").append(getLatencyPercentile(99))
+                    .append(", \"max\": ").append(getMaxLatency()).append("},\n");
+            sb.append("  \"allocatedBytes\": ").append(allocatedBytes).append(",\n");
+            sb.append("  \"allocationMBPerSecond\": ").append(format(getAllocationRate())).append(",\n");
+            sb.append("  \"ties\": ").append(getTies()).append(",\n");
+            sb.append("  \"standings\": [");
+            Integer[] order = standings();
+            for (int i = 0; i < order.length; i++) {
+                sb.append(i == 0 ? "\n" : ",\n");
+                sb.append("    {\"rank\": ").append(i + 1)
+                        .append(", \"name\": \"P").append(order[i] + 1)
+                        .append("\", \"wins\": ").append(wins[order[i]]).append("}");
+            }
+            sb.append("\n  ]\n}");
+            return sb.toString();
+        }
+        public String toCsv() {
+            StringBuilder sb = new StringBuilder("section,key,value\n");
+            sb.append("config,players,").append(config.players).append('\n');
+            sb.append("config,rounds,").append(config.rounds).append('\n');
+            sb.append("config,threads,").append(config.threads).append('\n');
+            sb.append("config,seed,").append(config.seed).append('\n');
+            sb.append("config,rng,").append(config.rng.name()).append('\n');
+            sb.append("summary,elapsed_ms,").append(format(elapsedNanos / 1e6)).append('\n');
+            sb.append("summary,rounds_per_second,").append(format(getRoundsPerSecond())).append('\n');
+            sb.append("summary,latency_p50_ns,").append(getLatencyPercentile(50)).append('\n');
+            sb.append("summary,latency_p99_ns,").append(getLatencyPercentile(99)).append('\n');
+            sb.append("summary,latency_max_ns,").append(getMaxLatency()).append('\n');
+            sb.append("summary,allocated_bytes,").append(allocatedBytes).append('\n');
+            sb.append("summary,allocation_mb_per_second,").append(format(getAllocationRate())).append('\n');
+            sb.append("summary,ties,").append(getTies()).append('\n');
+            for (int seat : standings()) {
+                sb.append("standing,P").append(seat + 1).append(',').append(wins[seat]).append('\n');
+            }
+            return sb.toString();
+        }
+        private static String format(double value) {
+            return String.format(Locale.ROOT, "%.2f", value);
+        }
+    }
+    // Log-linear histogram: 16 linear buckets per power of two, so any reported value is within ~6%
+    // of the true one while the whole table stays under 8 KB.
+    static class LatencyHistogram {
+        private static final int SUB_BITS = 4;
+        private static final int SUB_BUCKETS = 1 << SUB_BITS;
+        private long[] counts = new long[(64 - SUB_BITS + 1) * SUB_BUCKETS];
+        private long total;
+        private long max;
+        void record(long value) {
+            if (value < 0) {
+                value = 0;
+            }
+            counts[index(value)]++;
+            total++;
+            if (value > max) {
+                max = value;
+            }
+        }
+        void add(LatencyHistogram other) {
+            for (int i = 0; i < counts.length; i++) {
+                counts[i] += other.counts[i];
+            }
+            total += other.total;
+            max = Math.max(max, other.max);
+        }
+        long percentile(double percentile) {
+            if (total == 0) {
+                return 0;
+            }
+            long rank = Math.max(1, (long) Math.ceil(total * percentile / 100.0));
+            long seen = 0;
+            for (int i = 0; i < counts.length; i++) {
+                seen += counts[i];
+                if (seen >= rank) {
+                    return Math.min(upperBound(i), max);
+                }
+            }
+            return max;
+        }
+        long max() {
+            return max;
+        }
+        private static int index(long value) {
+            if (value < SUB_BUCKETS) {
+                return (int) value;
+            }
+            int exponent = 63 - Long.numberOfLeadingZeros(value);
+            int sub = (int) (value >>> (exponent - SUB_BITS)) & (SUB_BUCKETS - 1);
+            return (exponent - SUB_BITS + 1) * SUB_BUCKETS + sub;
+        }
+        private static long upperBound(int index) {
+            if (index < SUB_BUCKETS) {
+                return index;
+            }
+            int exponent = index / SUB_BUCKETS + SUB_BITS - 1;
+            long sub = index % SUB_BUCKETS;
+            long width = 1L << (exponent - SUB_BITS);
+            return ((SUB_BUCKETS + sub) << (exponent - SUB_BITS)) + width - 1;
+        }
+    }
+    public static void main(String[] args) throws InterruptedException {
+        if (args.length < 2) {
+            System.err.println(USAGE);
+            System.exit(1);
+        }
+        BatchRunner runner;
+        String format = args.length > 4 ? args[4].toLowerCase(Locale.ROOT) : "json";
+        try {
+            int players = Integer.parseInt(args[0].trim());
+            long rounds = Long.parseLong(args[1].trim());
+            long seed = args.length > 2 ? Long.parseLong(args[2].trim()) : System.nanoTime();
+            int threads = args.length > 3 ? Integer.parseInt(args[3].trim()) : 1;
+            Dice.Rng rng = Dice.Rng.SPLITTABLE;
+            if (args.length > 5) {
+                try {
+                    rng = Dice.Rng.parse(args[5]);
+                } catch (IllegalArgumentException e) {
+                    throw new IllegalArgumentException("Unknown generator: " + args[5]);
+                }
+            }
+            if (!format.equals("json") && !format.equals("csv")) {
+                throw new IllegalArgumentException("Unknown format: " + args[4]);
+            }
+            runner = new BatchRunner(players, rounds, seed, threads, rng);
+        } catch (NumberFormatException e) {
+            System.err.println("Not a whole number: " + e.getMessage());
+            System.err.println(USAGE);
+            System.exit(1);
+            return;
+        } catch (IllegalArgumentException e) {
+            System.err.println(e.getMessage());
+            System.err.println(USAGE);
+            System.exit(1);
+            return;
+        }
+        Result result = runner.run();
+        System.out.println(format.equals("csv") ? result.toCsv() : result.toJson());
+    }
+}
@@ -0,0 +1,359 @@
+import java.io.BufferedWriter;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+// Bracketed events built from GameEngine matches. Entrants are seed numbers 1..n, optionally with names;
+// every match gets a random stream derived from (seed, level, match), so results do not depend on how
+// the pool schedules.
+public class BracketTournament {
+    public enum TieBreak { REROLL, HIGHER_SEED, RANDOM }
+    private static final int MATCHES_PER_TASK = 64;
+    private static final int MAX_EXTRA_ROUNDS = 1000;
+    private static final int PAIRING_SEARCH_BUDGET = 100_000;
+    private int entrants;
+    private String[] names;
+    private int matchSize;
+    private int bestOf;
+    private TieBreak tieBreak;
+    private long seed;
+    private ForkJoinPool pool;
+    private List<Level> levels;
+    public BracketTournament(int entrants, int matchSize, int bestOf, TieBreak tieBreak, long seed) {
+        this(entrants, matchSize, bestOf, tieBreak, seed, ForkJoinPool.commonPool());
+    }
+    public BracketTournament(int entrants, int matchSize, int bestOf, TieBreak tieBreak, long seed, ForkJoinPool pool) {
+        if (entrants < 1 || matchSize < 2 || bestOf < 1) {
+            throw new IllegalArgumentException("Invalid bracket: " + entrants + " entrants, " + matchSize + " per match, best of " + bestOf);
+        }
+        this.entrants = entrants;
+        this.matchSize = matchSize;
+        this.bestOf = bestOf;
+        this.tieBreak = tieBreak;
+        this.seed = seed;
+        this.pool = pool;
+        this.levels = new ArrayList<>();
+    }
+    // names[i] is the entrant seeded i + 1.
+    public BracketTournament(String[] names, int matchSize, int bestOf, TieBreak tieBreak, long seed, ForkJoinPool pool) {
+        this(names.length, matchSize, bestOf, tieBreak, seed, pool);
+        this.names = names.clone();
+    }
+    public String getName(int entrant) {
+        return names != null ? names[entrant - 1] : "E" + entrant;
+    }
+    // One stage of the event: the entrants in match order, their match wins, and each match's outcome.
+    public static class Level {
+        private final int[] entrants;
+        private final int[] wins;
+        private final int[] winners;
+        private final int[] rounds;
+        private final int matchSize;
+        Level(int[] entrants, int matchSize) {
+            this.entrants = entrants;
+            this.matchSize = matchSize;
+            int matches = (entrants.length + matchSize - 1) / matchSize;
+            this.wins = new int[entrants.length];
+            this.winners = new int[matches];
+            this.rounds = new int[matches];
+        }
+        public int getMatchCount() { return winners.length; }
+        public int getWinner(int match) { return winners[match]; }
+        public int getRounds(int match) { return rounds[match]; }
+        public int[] getEntrants(int match) {
+            int from = match * matchSize;
+            return Arrays.copyOfRange(entrants, from, Math.min(from + matchSize, entrants.length));
+        }
+        public int[] getWins(int match) {
+            int from = match * matchSize;
+            return Arrays.copyOfRange(wins, from, Math.min(from + matchSize, wins.length));
+        }
+    }
+    public int runSingleElimination() {
+        levels.clear();
+        int[] field = new int[entrants];
+        for (int i = 0; i < entrants; i++) {
+            field[i] = i + 1;
+        }
+        while (field.length > 1) {
+            Level level = playLevel(levels.size(), field);
+            levels.add(level);
+            field = level.winners.clone();
+        }
+        return field[0];
+    }
+    // Swiss: every round, entrants are ordered by points (then seed) and grouped into matches with the
+    // best-ranked opponents they have not met yet; the match winner scores a point. Returns entrants
+    // ordered by final points.
+    public int[] runSwiss(int swissRounds) {
+        levels.clear();
+        int[] points = new int[entrants + 1];
+        Integer[] order = new Integer[entrants];
+        for (int i = 0; i < entrants; i++) {
+            order[i] = i + 1;
+        }
+        Meetings met = new Meetings(entrants, swissRounds * (matchSize - 1));
+        for (int r = 0; r < swissRounds; r++) {
+            Arrays.sort(order, (a, b) -> points[a] != points[b] ? Integer.compare(points[b], points[a]) : Integer.compare(a, b));
+            int[] ranked = new int[entrants];
+            for (int i = 0; i < entrants; i++) {
+                ranked[i] = order[i];
+            }
+            int[] field = swissPairing(ranked, met);
+            Level level = playLevel(r, field);
+            levels.add(level);
+            for (int from = 0; from < field.length; from += matchSize) {
+                int to = Math.min(from + matchSize, field.length);
+                for (int i = from; i < to; i++) {
+                    for (int j = i + 1; j < to; j++) {
+                        met.add(field[i], field[j]);
+                    }
+                }
+            }
+            for (int winner : level.winners) {
+                points[winner]++;
+            }
+        }
+        Arrays.sort(order, (a, b) -> points[a] != points[b] ? Integer.compare(points[b], points[a]) : Integer.compare(a, b));
+        int[] standings = new int[entrants];
+        for (int i = 0; i < entrants; i++) {
+            standings[i] = order[i];
+        }
+        return standings;
+    }
+    // Each match is opened by the best-ranked free entrant and filled with the best-ranked free entrants
+    // who have met nobody in it yet. The search backs off when the lower tables cannot be completed
+    // without a rematch; if it runs out of budget, rematches are allowed where nothing else fits.
+    int[] swissPairing(int[] ranked, Meetings met) {
+        int n = ranked.length;
+        int[] field = new int[n];
+        int[] picks = new int[n];
+        boolean[] used = new boolean[n];
+        Arrays.fill(picks, -1);
+        long budget = PAIRING_SEARCH_BUDGET + (long) n * matchSize;
+        int firstFree = 0;
+        int pos = 0;
+        while (pos < n && pos >= 0 && budget-- > 0) {
+            while (firstFree < n && used[firstFree]) firstFree++;
+            boolean opener = pos % matchSize == 0;
+            // An opener has no alternative: a later entrant can never open ahead of a better-ranked one.
+            int pick = opener && picks[pos] >= 0 ? -1 : nextFree(ranked, met, field, used, pos, Math.max(firstFree, picks[pos] + 1));
+            if (pick < 0) {
+                picks[pos] = -1;
+                if (--pos >= 0) {
+                    used[picks[pos]] = false;
+                    firstFree = Math.min(firstFree, picks[pos]);
+                }
+                continue;
+            }
+            used[pick] = true;
+            picks[pos] = pick;
+            field[pos++] = ranked[pick];
+        }
+        if (pos < n) {
+            Arrays.fill(used, false);
+            firstFree = 0;
+            for (pos = 0; pos < n; pos++) {
+                while (used[firstFree]) firstFree++;
+                int pick = nextFree(ranked, met, field, used, pos, firstFree);
+                if (pick < 0) {
+                    pick = firstFree;
+                }
+                used[pick] = true;
+                field[pos] = ranked[pick];
+            }
+        }
+        return field;
+    }
+    // First free index at or after from whose entrant has met nobody already placed in pos's match.
+    private int nextFree(int[] ranked, Meetings met, int[] field, boolean[] used, int pos, int from) {
+        int groupStart = pos - pos % matchSize;
+        for (int i = from; i < ranked.length; i++) {
+            if (used[i]) continue;
+            boolean fresh = true;
+            for (int g = groupStart; g < pos; g++) {
+                if (met.have(field[g], ranked[i])) {
+                    fresh = false;
+                    break;
+                }
+            }
+            if (fresh) return i;
+        }
+        return -1;
+    }
+    // Opponents each entrant has shared a match with; a Swiss event meets only a handful per entrant,
+    // so a short scan beats hashing every pair.
+    static class Meetings {
+        private final int[][] opponents;
+        private final int[] counts;
+        Meetings(int entrants, int perEntrant) {
+            this.opponents = new int[entrants + 1][];
+            this.counts = new int[entrants + 1];
+            for (int e = 1; e <= entrants; e++) {
+                opponents[e] = new int[Math.max(1, perEntrant)];
+            }
+        }
+        void add(int a, int b) {
+            if (have(a, b)) return;
+            append(a, b);
+            append(b, a);
+        }
+        private void append(int entrant, int opponent) {
+            if (counts[entrant] == opponents[entrant].length) {
+                opponents[entrant] = Arrays.copyOf(opponents[entrant], counts[entrant] * 2);
+            }
+            opponents[entrant][counts[entrant]++] = opponent;
+        }
+        boolean have(int a, int b) {
+            int[] list = opponents[a];
+            for (int i = 0; i < counts[a]; i++) {
+                if (list[i] == b) return true;
+            }
+            return false;
+        }
+    }
+    private Level playLevel(int levelIndex, int[] field) {
+        Level level = new Level(field, matchSize);
+        pool.invoke(new MatchTask(level, levelIndex, 0, level.getMatchCount()));
+        return level;
+    }
+    private void playMatch(Level level, int levelIndex, int match) {
+        int from = match * matchSize;
+        int size = Math.min(matchSize, level.entrants.length - from);
+        if (size == 1) {
+            level.winners[match] = level.entrants[from];
+            return;
+        }
+        ArrayList<Player> players = new ArrayList<>(size);
+        int[] seeds = Arrays.copyOfRange(level.entrants, from, from + size);
+        for (int seedNumber : seeds) {
+            players.add(new Player(getName(seedNumber)));
+        }
+        SplittableRandom stream = new SplittableRandom(matchSeed(seed, levelIndex, match));
+        GameEngine engine = new GameEngine(players, new Dice(stream), 1, 0);
+        Leaderboard board = engine.getLeaderboard();
+        int target = bestOf / 2 + 1;
+        int rounds = 0;
+        while (rounds < bestOf && board.atPosition(0).showWins() < target) {
+            engine.playRound();
+            rounds++;
+        }
+        if (tieBreak == TieBreak.REROLL) {
+            while (leaderCount(board) > 1 && rounds < bestOf + MAX_EXTRA_ROUNDS) {
+                engine.playRound();
+                rounds++;
+            }
+        }
+        int winnerIndex = pickLeader(board, players, seeds, stream);
+        for (int i = 0; i < size; i++) {
+            level.wins[from + i] = players.get(i).showWins();
+        }
+        level.winners[match] = level.entrants[from + winnerIndex];
+        level.rounds[match] = rounds;
+    }
+    private static int leaderCount(Leaderboard board) {
+        int count = 1;
+        while (count < board.size() && board.rankOf(board.atPosition(count)) == 1) {
+            count++;
+        }
+        return count;
+    }
+    // Index into players of the match winner; seeds[i] is the seed number of players.get(i).
+    private int pickLeader(Leaderboard board, ArrayList<Player> players, int[] seeds, SplittableRandom stream) {
+        int leaders = leaderCount(board);
+        if (leaders == 1) {
+            return players.indexOf(board.atPosition(0));
+        }
+        if (tieBreak == TieBreak.RANDOM) {
+            return players.indexOf(board.atPosition(stream.nextInt(leaders)));
+        }
+        // HIGHER_SEED, and REROLL once its extra rounds run out: the lowest seed number advances.
+        int best = players.indexOf(board.atPosition(0));
+        for (int i = 1; i < leaders; i++) {
+            int candidate = players.indexOf(board.atPosition(i));
+            if (seeds[candidate] < seeds[best]) best = candidate;
+        }
+        return best;
+    }
+    static long matchSeed(long seed, int level, int match) {
+        long z = seed + 0x9E3779B97F4A7C15L * ((((long) level) << 32) | (match & 0xFFFFFFFFL));
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+    private class MatchTask extends RecursiveAction {
+        private final Level level;
+        private final int levelIndex;
+        private final int from;
+        private final int to;
+        MatchTask(Level level, int levelIndex, int from, int to) {
+            this.level = level;
+            this.levelIndex = levelIndex;
+            this.from = from;
+            this.to = to;
+        }
+        @Override
+        protected void compute() {
+            if (to - from <= MATCHES_PER_TASK) {
+                for (int match = from; match < to; match++) {
+                    playMatch(level, levelIndex, match);
+                }
+                return;
+            }
+            int mid = (from + to) >>> 1;
+            invokeAll(new MatchTask(level, levelIndex, from, mid), new MatchTask(level, levelIndex, mid, to));
+        }
+    }
+    public List<Level> getLevels() {
+        return levels;
+    }
+    // CSV, one line per match: level,match,rounds,winner,entrant:wins;entrant:wins;...
+    public void export(String path) throws IOException {
+        try (Writer writer = new BufferedWriter(new FileWriter(path))) {
+            writer.write("level,match,rounds,winner,results\n");
+            for (int l = 0; l < levels.size(); l++) {
+                Level level = levels.get(l);
+                for (int m = 0; m < level.getMatchCount(); m++) {
+                    writer.write((l + 1) + "," + (m + 1) + "," + level.rounds[m] + "," + level.winners[m] + ",");
+                    int from = m * matchSize;
+                    int to = Math.min(from + matchSize, level.entrants.length);
+                    for (int i = from; i < to; i++) {
+                        writer.write(level.entrants[i] + ":" + level.wins[i]);
+                        if (i < to - 1) writer.write(';');
+                    }
+                    writer.write('\n');
+                }
+            }
+        }
+    }
+    public static void main(String[] args) throws IOException {
+        if (args.length < 2) {
+            System.err.println("Usage: java BracketTournament <single|swiss> <entrants> [match size] [best of] [tie break] [seed] [swiss rounds] [export file]");
+            System.exit(1);
+        }
+        int entrants = Integer.parseInt(args[1]);
+        int matchSize = args.length > 2 ? Integer.parseInt(args[2]) : 2;
+        int bestOf = args.length > 3 ? Integer.parseInt(args[3]) : 3;
+        TieBreak tieBreak = args.length > 4 ? TieBreak.valueOf(args[4].toUpperCase()) : TieBreak.REROLL;
+        long seed = args.length > 5 ? Long.parseLong(args[5]) : System.nanoTime();
+        BracketTournament tournament = new BracketTournament(entrants, matchSize, bestOf, tieBreak, seed);
+        long start = System.nanoTime();
+        if (args[0].equalsIgnoreCase("swiss")) {
+            int swissRounds = args.length > 6 ? Integer.parseInt(args[6]) : 32 - Integer.numberOfLeadingZeros(entrants);
+            int[] standings = tournament.runSwiss(swissRounds);
+            System.out.println("Swiss winner: entrant " + standings[0]);
+        } else {
+            System.out.println("Champion: entrant " + tournament.runSingleElimination());
+        }
+        System.out.printf("%d levels resolved in %.1f ms%n", tournament.getLevels().size(), (System.nanoTime() - start) / 1e6);
+        if (args.length > 7) {
+            tournament.export(args[7]);
+            System.out.println("Bracket exported to " + args[7]);
+        }
+    }
+}
@@ -0,0 +1,32 @@
+// One connected player as seen by MultiplayerServer, independent of how the socket is driven.
+// send and sendMessage may be called from any thread and only queue the line; each message is one
+// protocol line without the newline. Once binary framing is negotiated the connection writes frames
+// instead, see WireProtocol.
+public interface ClientConnection {
+    void send(OutboundQueue.Message message);
+    default void sendMessage(String message) {
+        send(OutboundQueue.Message.of(message));
+    }
+    // True once the client asked for frames; messages queued from then on are written framed.
+    boolean isBinary();
+    // Queues the acknowledgement and switches the connection to frames after it.
+    void enableBinary(String acknowledgement);
+    // True once the client asked for ROSTER/DELTA updates; framed clients always get them.
+    boolean wantsDeltas();
+    void enableDeltas();
+    // True once after the outbound queue dropped a delta for this client, see OutboundQueue.
+    boolean takeMissedDelta();
+    // Null when commands are not rate limited; only the thread reading this connection uses it.
+    FloodControl.TokenBucket getRateLimit();
+    // True once the client promised to answer PING; only such clients are pinged and evicted when idle.
+    boolean wantsHeartbeats();
+    void enableHeartbeats();
+    // System.nanoTime() of the last command received; heartbeats and idle eviction go by it.
+    long getLastActivity();
+    void markActive();
+    void disconnect();
+    String getPlayerName();
+    void setPlayerName(String playerName);
+    GameRoom getRoom();
+    void setRoom(GameRoom room);
+}
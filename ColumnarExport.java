@@ -0,0 +1,154 @@
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+// Columnar roll history, written block by block from a round journal.
+// File: header = "DGC1", u16 version, u32 players, u32 sides, u32 dice per player, u32 bits per roll,
+//       u32 block rounds, then per player a varint length + UTF-8 name (a u16 length in version 1).
+// Block: u32 rounds, u32 first round number, per player (u32 min, u32 max, u64 sum),
+//        per player ceil(rounds / valuesPerWord) u64 words of (roll - dicePerPlayer) packed without
+//        straddling word boundaries, then u32 byte length + varint winner runs, each run being
+//        ((run length - 1) << winnerBits) | (winner index + 1).
+// Footer: u64 per block offset, u64 block count, u64 total rounds, u64 index offset, "DGC1".
+public class ColumnarExport {
+    static final int MAGIC = 0x44474331;
+    static final int VERSION = 2;
+    static final int MAX_BLOCK_ROUNDS = 1 << 16;
+    // Keeps the per-block packing buffers around 16M values regardless of player count.
+    static final int BLOCK_VALUE_BUDGET = 1 << 24;
+    public static long export(String journalPath, String columnarPath) throws IOException {
+        try (RoundJournal.Reader reader = new RoundJournal.Reader(journalPath);
+             FileChannel out = FileChannel.open(Paths.get(columnarPath), StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            String[] names = reader.getNames();
+            int playerCount = names.length;
+            int minRoll = reader.getDicePerPlayer();
+            int maxRoll = reader.getSides() * reader.getDicePerPlayer();
+            int bits = bitsFor(maxRoll - minRoll);
+            int valuesPerWord = 64 / bits;
+            int blockRounds = Math.max(valuesPerWord, Math.min(MAX_BLOCK_ROUNDS, BLOCK_VALUE_BUDGET / Math.max(1, playerCount)));
+            blockRounds -= blockRounds % valuesPerWord;
+            int winnerBits = bitsFor(playerCount);
+            ByteBuffer header = ByteBuffer.allocate(26 + playerCount * 5 + totalNameBytes(names));
+            header.putInt(MAGIC).putShort((short) VERSION).putInt(playerCount).putInt(reader.getSides())
+                    .putInt(reader.getDicePerPlayer()).putInt(bits).putInt(blockRounds);
+            for (String name : names) {
+                byte[] bytes = name.getBytes(StandardCharsets.UTF_8);
+                RoundJournal.putVarint(header, bytes.length);
+                header.put(bytes);
+            }
+            writeFully(out, header.flip());
+            int wordsPerColumn = blockRounds / valuesPerWord;
+            long[][] columns = new long[playerCount][wordsPerColumn];
+            int[] min = new int[playerCount];
+            int[] max = new int[playerCount];
+            long[] sum = new long[playerCount];
+            ByteBuffer runs = ByteBuffer.allocate(blockRounds * 10);
+            long[] blockOffsets = new long[16];
+            int blockCount = 0;
+            long totalRounds = 0;
+            boolean more = reader.next();
+            while (more) {
+                for (long[] column : columns) {
+                    Arrays.fill(column, 0);
+                }
+                Arrays.fill(min, Integer.MAX_VALUE);
+                Arrays.fill(max, Integer.MIN_VALUE);
+                Arrays.fill(sum, 0);
+                runs.clear();
+                int firstRound = reader.getRoundNumber();
+                int rounds = 0;
+                int runWinner = Integer.MIN_VALUE;
+                int runLength = 0;
+                while (more && rounds < blockRounds) {
+                    int[] rolls = reader.getRolls();
+                    int word = rounds / valuesPerWord;
+                    int shift = (rounds % valuesPerWord) * bits;
+                    for (int p = 0; p < playerCount; p++) {
+                        int roll = rolls[p];
+                        columns[p][word] |= (long) (roll - minRoll) << shift;
+                        if (roll < min[p]) min[p] = roll;
+                        if (roll > max[p]) max[p] = roll;
+                        sum[p] += roll;
+                    }
+                    int winner = reader.getWinnerIndex() + 1;
+                    if (winner == runWinner) {
+                        runLength++;
+                    } else {
+                        if (runLength > 0) {
+                            putVarLong(runs, ((long) (runLength - 1) << winnerBits) | runWinner);
+                        }
+                        runWinner = winner;
+                        runLength = 1;
+                    }
+                    rounds++;
+                    more = reader.next();
+                }
+                putVarLong(runs, ((long) (runLength - 1) << winnerBits) | runWinner);
+                int usedWords = (rounds + valuesPerWord - 1) / valuesPerWord;
+                ByteBuffer block = ByteBuffer.allocate(8 + playerCount * 16 + playerCount * usedWords * 8 + 4 + runs.position());
+                block.putInt(rounds).putInt(firstRound);
+                for (int p = 0; p < playerCount; p++) {
+                    block.putInt(min[p]).putInt(max[p]).putLong(sum[p]);
+                }
+                for (int p = 0; p < playerCount; p++) {
+                    for (int w = 0; w < usedWords; w++) {
+                        block.putLong(columns[p][w]);
+                    }
+                }
+                block.putInt(runs.position()).put(runs.array(), 0, runs.position());
+                if (blockCount == blockOffsets.length) {
+                    blockOffsets = Arrays.copyOf(blockOffsets, blockCount * 2);
+                }
+                blockOffsets[blockCount++] = out.position();
+                writeFully(out, block.flip());
+                totalRounds += rounds;
+            }
+            long indexOffset = out.position();
+            ByteBuffer footer = ByteBuffer.allocate(blockCount * 8 + 28);
+            for (int b = 0; b < blockCount; b++) {
+                footer.putLong(blockOffsets[b]);
+            }
+            footer.putLong(blockCount).putLong(totalRounds).putLong(indexOffset).putInt(MAGIC);
+            writeFully(out, footer.flip());
+            return totalRounds;
+        }
+    }
+    static int bitsFor(int maxValue) {
+        return Math.max(1, 32 - Integer.numberOfLeadingZeros(maxValue));
+    }
+    private static int totalNameBytes(String[] names) {
+        int total = 0;
+        for (String name : names) {
+            total += name.getBytes(StandardCharsets.UTF_8).length;
+        }
+        return total;
+    }
+    private static void writeFully(FileChannel out, ByteBuffer buffer) throws IOException {
+        while (buffer.hasRemaining()) {
+            out.write(buffer);
+        }
+    }
+    static void putVarLong(ByteBuffer buffer, long value) {
+        while ((value & ~0x7FL) != 0) {
+            buffer.put((byte) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        buffer.put((byte) value);
+    }
+    public static void main(String[] args) {
+        if (args.length != 2) {
+            System.err.println("Usage: java ColumnarExport <journal file> <columnar file>");
+            System.exit(1);
+        }
+        try {
+            long rounds = export(args[0], args[1]);
+            System.out.println("Exported " + rounds + " rounds from " + args[0] + " to " + args[1]);
+        } catch (IOException e) {
+            System.err.println("Error exporting journal: " + e.getMessage());
+            System.exit(1);
+        }
+    }
+}
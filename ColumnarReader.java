@@ -0,0 +1,174 @@
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+// Memory-mapped scanner for files written by ColumnarExport; blocks are mapped one at a time.
+public class ColumnarReader implements Closeable {
+    private FileChannel channel;
+    private String[] names;
+    private int sides;
+    private int dicePerPlayer;
+    private int bits;
+    private int valuesPerWord;
+    private int winnerBits;
+    private long[] blockOffsets;
+    private long indexOffset;
+    private long totalRounds;
+    public ColumnarReader(String path) throws IOException {
+        channel = FileChannel.open(Paths.get(path), StandardOpenOption.READ);
+        long size = channel.size();
+        ByteBuffer footer = channel.map(FileChannel.MapMode.READ_ONLY, size - 28, 28);
+        long blockCount = footer.getLong();
+        totalRounds = footer.getLong();
+        indexOffset = footer.getLong();
+        if (footer.getInt() != ColumnarExport.MAGIC) {
+            channel.close();
+            throw new IOException(path + " is not a columnar roll history");
+        }
+        ByteBuffer index = channel.map(FileChannel.MapMode.READ_ONLY, indexOffset, blockCount * 8);
+        blockOffsets = new long[(int) blockCount];
+        for (int b = 0; b < blockOffsets.length; b++) {
+            blockOffsets[b] = index.getLong();
+        }
+        long headerEnd = blockCount > 0 ? blockOffsets[0] : indexOffset;
+        ByteBuffer header = channel.map(FileChannel.MapMode.READ_ONLY, 0, headerEnd);
+        int version = header.getInt() == ColumnarExport.MAGIC ? header.getShort() : -1;
+        if (version < 1 || version > ColumnarExport.VERSION) {
+            channel.close();
+            throw new IOException(path + " has an unsupported header");
+        }
+        names = new String[header.getInt()];
+        sides = header.getInt();
+        dicePerPlayer = header.getInt();
+        bits = header.getInt();
+        header.getInt();
+        for (int i = 0; i < names.length; i++) {
+            byte[] name = new byte[version >= 2 ? RoundJournal.getVarint(header) : header.getShort() & 0xFFFF];
+            header.get(name);
+            names[i] = new String(name, StandardCharsets.UTF_8);
+        }
+        valuesPerWord = 64 / bits;
+        winnerBits = ColumnarExport.bitsFor(names.length);
+    }
+    private MappedByteBuffer block(int b) throws IOException {
+        long end = b + 1 < blockOffsets.length ? blockOffsets[b + 1] : indexOffset;
+        return channel.map(FileChannel.MapMode.READ_ONLY, blockOffsets[b], end - blockOffsets[b]);
+    }
+    private int statsOffset(int player) {
+        return 8 + player * 16;
+    }
+    private int columnOffset(int rounds, int player) {
+        int words = (rounds + valuesPerWord - 1) / valuesPerWord;
+        return 8 + names.length * 16 + player * words * 8;
+    }
+    // Sole wins per player, with the tie count in the extra last slot.
+    public long[] winCounts() throws IOException {
+        long[] counts = new long[names.length + 1];
+        long winnerMask = (1L << winnerBits) - 1;
+        for (int b = 0; b < blockOffsets.length; b++) {
+            MappedByteBuffer block = block(b);
+            int rounds = block.getInt(0);
+            block.position(columnOffset(rounds, names.length));
+            int end = block.getInt() + block.position();
+            while (block.position() < end) {
+                long run = getVarLong(block);
+                int winner = (int) (run & winnerMask);
+                long length = (run >>> winnerBits) + 1;
+                counts[winner == 0 ? names.length : winner - 1] += length;
+            }
+        }
+        return counts;
+    }
+    // Uses only block statistics; no roll column is decoded.
+    public long sumRolls(int player) throws IOException {
+        long total = 0;
+        for (int b = 0; b < blockOffsets.length; b++) {
+            total += block(b).getLong(statsOffset(player) + 8);
+        }
+        return total;
+    }
+    public long[] rollHistogram(int player) throws IOException {
+        long[] histogram = new long[sides * dicePerPlayer + 1];
+        long mask = (1L << bits) - 1;
+        for (int b = 0; b < blockOffsets.length; b++) {
+            MappedByteBuffer block = block(b);
+            int rounds = block.getInt(0);
+            int offset = columnOffset(rounds, player);
+            for (int r = 0; r < rounds; r += valuesPerWord) {
+                long word = block.getLong(offset + (r / valuesPerWord) * 8);
+                int count = Math.min(valuesPerWord, rounds - r);
+                for (int v = 0; v < count; v++) {
+                    histogram[(int) (word & mask) + dicePerPlayer]++;
+                    word >>>= bits;
+                }
+            }
+        }
+        return histogram;
+    }
+    // Skips blocks whose max is below the threshold and counts whole blocks whose min reaches it.
+    public long countRollsAtLeast(int player, int threshold) throws IOException {
+        long count = 0;
+        long mask = (1L << bits) - 1;
+        for (int b = 0; b < blockOffsets.length; b++) {
+            MappedByteBuffer block = block(b);
+            int rounds = block.getInt(0);
+            int min = block.getInt(statsOffset(player));
+            int max = block.getInt(statsOffset(player) + 4);
+            if (max < threshold) continue;
+            if (min >= threshold) {
+                count += rounds;
+                continue;
+            }
+            int offset = columnOffset(rounds, player);
+            for (int r = 0; r < rounds; r += valuesPerWord) {
+                long word = block.getLong(offset + (r / valuesPerWord) * 8);
+                int values = Math.min(valuesPerWord, rounds - r);
+                for (int v = 0; v < values; v++) {
+                    if ((int) (word & mask) + dicePerPlayer >= threshold) count++;
+                    word >>>= bits;
+                }
+            }
+        }
+        return count;
+    }
+    private static long getVarLong(ByteBuffer buffer) {
+        long value = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            int b = buffer.get() & 0xFF;
+            value |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) return value;
+        }
+        throw new IllegalStateException("Malformed varint");
+    }
+    public String[] getNames() { return names; }
+    public long getRounds() { return totalRounds; }
+    public int getBlockCount() { return blockOffsets.length; }
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+    public static void main(String[] args) {
+        if (args.length != 1) {
+            System.err.println("Usage: java ColumnarReader <columnar file>");
+            System.exit(1);
+        }
+        try (ColumnarReader reader = new ColumnarReader(args[0])) {
+            long start = System.nanoTime();
+            long[] counts = reader.winCounts();
+            String[] names = reader.getNames();
+            System.out.println("Rounds: " + reader.getRounds() + " in " + reader.getBlockCount() + " blocks");
+            for (int i = 0; i < names.length; i++) {
+                System.out.println(names[i] + ": " + counts[i] + " wins, roll sum " + reader.sumRolls(i));
+            }
+            System.out.println("Ties: " + counts[names.length]);
+            System.out.printf("Scanned in %.1f ms%n", (System.nanoTime() - start) / 1e6);
+        } catch (IOException e) {
+            System.err.println("Error reading columnar file: " + e.getMessage());
+            System.exit(1);
+        }
+    }
+}
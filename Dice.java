@@ -1,10 +1,145 @@
+import java.util.Arrays;
+import java.util.Objects;
 import java.util.Random;
+import java.util.SplittableRandom;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.random.RandomGenerator;
+import java.util.random.RandomGeneratorFactory;
 public class Dice {
-    private Random rand;
+    public static final int DEFAULT_SIDES = 6;
+    private RandomGenerator rand;
+    private Rng rng;
+    private int sides;
+    private int facesPerWord;
+    private long wordBound;
     public Dice() {
-        rand = new Random();
+        this(new Random());
+    }
+    public Dice(RandomGenerator rand) {
+        this(rand, DEFAULT_SIDES);
+    }
+    public Dice(RandomGenerator rand, int sides) {
+        if (sides < 1) {
+            throw new IllegalArgumentException("A die needs at least one side: " + sides);
+        }
+        this.rand = rand;
+        this.sides = sides;
+        // nextLong(bound) redraws whenever a 63-bit word lands in the partial block above the largest
+        // multiple of bound, so the largest power of sides is not always best: 6^24 is rejected about
+        // half the time. Pick the exponent with the most accepted faces per draw.
+        long bound = 1;
+        int faces = 0;
+        double bestFacesPerDraw = 0;
+        long power = 1;
+        for (int k = 1; sides > 1 && power <= Long.MAX_VALUE / sides; k++) {
+            power *= sides;
+            double facesPerDraw = k * acceptance(power);
+            if (facesPerDraw > bestFacesPerDraw) {
+                bestFacesPerDraw = facesPerDraw;
+                bound = power;
+                faces = k;
+            }
+        }
+        this.facesPerWord = Math.max(faces, 1);
+        this.wordBound = bound;
+    }
+    // Fraction of 63-bit words nextLong(bound) accepts on the first try.
+    static double acceptance(long bound) {
+        long blocks = Long.divideUnsigned(Long.MIN_VALUE, bound);
+        return blocks * (double) bound / 0x1p63;
+    }
+    public Dice(Rng rng) {
+        this(rng, DEFAULT_SIDES);
+    }
+    public Dice(Rng rng, int sides) {
+        this(rng.create(), sides);
+        this.rng = rng;
+    }
+    public Dice(Rng rng, long seed) {
+        this(rng, seed, DEFAULT_SIDES);
+    }
+    public Dice(Rng rng, long seed, int sides) {
+        this(rng.create(seed), sides);
+        this.rng = rng;
     }
     public int roll() {
-        return rand.nextInt(6) + 1;
+        return rand.nextInt(sides) + 1;
+    }
+    public void rollInto(int[] dst, int off, int len) {
+        Objects.checkFromIndexSize(off, len, dst.length);
+        if (sides == 1) {
+            Arrays.fill(dst, off, off + len, 1);
+            return;
+        }
+        int end = off + len;
+        int i = off;
+        while (i < end) {
+            // nextLong(bound) rejects out-of-range words, so every base-sides digit is uniform.
+            long word = rand.nextLong(wordBound);
+            int count = Math.min(facesPerWord, end - i);
+            for (int j = 0; j < count; j++) {
+                dst[i++] = (int) (word % sides) + 1;
+                word /= sides;
+            }
+        }
+    }
+    public int getSides() {
+        return sides;
+    }
+    // Null when the dice were built around a caller's generator.
+    public Rng getRng() {
+        return rng;
+    }
+    public int getFacesPerWord() {
+        return facesPerWord;
+    }
+    public enum Rng {
+        RANDOM("java.util.Random"),
+        SPLITTABLE("SplittableRandom"),
+        THREAD_LOCAL("ThreadLocalRandom (unseeded)"),
+        L64X128("L64X128MixRandom"),
+        XOSHIRO256("Xoshiro256PlusPlus");
+        private String label;
+        Rng(String label) {
+            this.label = label;
+        }
+        public RandomGenerator create() {
+            switch (this) {
+                case RANDOM: return new Random();
+                case SPLITTABLE: return new SplittableRandom();
+                case THREAD_LOCAL: return new ThreadLocalGenerator();
+                default: return RandomGeneratorFactory.of(label).create();
+            }
+        }
+        public RandomGenerator create(long seed) {
+            switch (this) {
+                case RANDOM: return new Random(seed);
+                case SPLITTABLE: return new SplittableRandom(seed);
+                case THREAD_LOCAL: return new ThreadLocalGenerator();
+                default: return RandomGeneratorFactory.of(label).create(seed);
+            }
+        }
+        public boolean isSeedable() {
+            return this != THREAD_LOCAL;
+        }
+        public static Rng parse(String name) {
+            if (name == null || name.trim().isEmpty()) return RANDOM;
+            return valueOf(name.trim().toUpperCase().replace('-', '_'));
+        }
+        @Override
+        public String toString() {
+            return name() + " - " + label;
+        }
+    }
+    // ThreadLocalRandom.current() must be looked up on the calling thread, so it cannot be cached in a field.
+    private static class ThreadLocalGenerator implements RandomGenerator {
+        @Override
+        public long nextLong() {
+            return ThreadLocalRandom.current().nextLong();
+        }
+        @Override
+        public int nextInt(int bound) {
+            return ThreadLocalRandom.current().nextInt(bound);
+        }
     }
 }
@@ -2,9 +2,13 @@ import javax.swing.*;
 import java.awt.*;
 import java.awt.event.ActionEvent;
 import java.awt.event.ActionListener;
+import java.awt.event.WindowAdapter;
+import java.awt.event.WindowEvent;
+import java.io.IOException;
 import java.util.ArrayList;
 import javax.swing.border.EmptyBorder;
 public class DiceGameGUI extends JFrame {
+    private static final String JOURNAL_FILE = "dice_game.journal";
     private GameEngine gameEngine;
     private JPanel playersPanel;
     private JPanel gamePanel;
@@ -35,6 +39,15 @@ public class DiceGameGUI extends JFrame {
     private void initializeUI() {
         setTitle("🎲 Modern Dice Arena - Elite Gaming Experience");
         setDefaultCloseOperation(JFrame.EXIT_ON_CLOSE);
+        // The journal buffers rounds; close it so the last batch reaches the file before exit.
+        addWindowListener(new WindowAdapter() {
+            @Override
+            public void windowClosing(WindowEvent e) {
+                if (gameEngine != null) {
+                    gameEngine.closeJournal();
+                }
+            }
+        });
         setSize(1200, 800);
         setLocationRelativeTo(null);
         setResizable(true);
@@ -285,13 +298,25 @@ public class DiceGameGUI extends JFrame {
                 }
                 players.add(new Player(name.trim()));
             }
-            startNewGame(players);
+            Dice.Rng rng = (Dice.Rng) JOptionPane.showInputDialog(this, "Choose the dice random generator:", "Random Generator", JOptionPane.QUESTION_MESSAGE, null, Dice.Rng.values(), Dice.Rng.RANDOM);
+            if (rng == null) {
+                rng = Dice.Rng.RANDOM;
+            }
+            startNewGame(players, rng);
         } catch (NumberFormatException e) {
             JOptionPane.showMessageDialog(this, "Please enter a valid number!", "Invalid Input", JOptionPane.ERROR_MESSAGE);
         }
     }
-    private void startNewGame(ArrayList<Player> players) {
-        gameEngine = new GameEngine(players);
+    private void startNewGame(ArrayList<Player> players, Dice.Rng rng) {
+        if (gameEngine != null) {
+            gameEngine.closeJournal();
+        }
+        gameEngine = new GameEngine(players, new Dice(rng));
+        try {
+            gameEngine.openJournal(JOURNAL_FILE);
+        } catch (IOException e) {
+            JOptionPane.showMessageDialog(this, "Could not open game journal: " + e.getMessage(), "Journal", JOptionPane.WARNING_MESSAGE);
+        }
         setupPlayersPanel(players);
         rollDiceButton.setEnabled(true);
         saveGameButton.setEnabled(true);
@@ -301,6 +326,8 @@ public class DiceGameGUI extends JFrame {
         
         gameLogArea.setText(">>> GAME INITIALIZATION COMPLETE <<<\n");
         gameLogArea.append(">>> " + players.size() + " PLAYERS ENTERED THE ARENA <<<\n");
+        gameLogArea.append(">>> DICE GENERATOR: " + rng + " <<<\n");
+        gameLogArea.append(">>> ODDS: " + OddsCalculator.forGame(players.size()) + " <<<\n");
         gameLogArea.append("═══════════════════════════════════════════════════════════\n");
         for (Player player : players) {
             gameLogArea.append(">>> WARRIOR: " + player.showName() + " [READY]\n");
@@ -379,7 +406,7 @@ public class DiceGameGUI extends JFrame {
         nameLabel.setForeground(Color.WHITE);
         
         // Wins label with cyberpunk styling  
-        JLabel winsLabel = new JLabel("VICTORIES: " + player.showWins(), JLabel.CENTER);
+        JLabel winsLabel = new JLabel(standing(player), JLabel.CENTER);
         winsLabel.setFont(new Font("Segoe UI", Font.BOLD, 11));
         winsLabel.setForeground(new Color(0, 255, 127));
         
@@ -405,10 +432,13 @@ public class DiceGameGUI extends JFrame {
     private void updatePlayerDisplay() {
         ArrayList<Player> players = gameEngine.getPlayers();
         for (int i = 0; i < players.size(); i++) {
-            Player player = players.get(i);
-            winsLabels.get(i).setText("VICTORIES: " + player.showWins());
+            winsLabels.get(i).setText(standing(players.get(i)));
         }
     }
+    // Ranks come from the engine's leaderboard, so refreshing every card stays O(n).
+    private String standing(Player player) {
+        return "VICTORIES: " + player.showWins() + "  RANK #" + gameEngine.getLeaderboard().rankOf(player);
+    }
     private void animateDiceRoll(ArrayList<Integer> rolls) {
         rollDiceButton.setEnabled(false);
         statusLabel.setText("🎲 Rolling dice... Get ready for the results!");
@@ -462,6 +492,7 @@ public class DiceGameGUI extends JFrame {
     }
     private String getDiceFace(int roll) {
         String[] diceFaces = {"⚀", "⚁", "⚂", "⚃", "⚄", "⚅"};
+        if (roll < 1 || roll > diceFaces.length) return String.valueOf(roll);
         return diceFaces[roll - 1];
     }
     private void saveGame() {
@@ -1,18 +1,22 @@
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Paths;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Scanner;
 public class Executer {
-    public static void main(String[] args) {
+    private static final String JOURNAL_FILE = "game_results.journal";
+    private static final String SNAPSHOT_FILE = "game_results.snapshot";
+    public static void main(String[] args) throws InterruptedException {
+        if (args.length > 0) {
+            BatchRunner.main(args);
+            return;
+        }
         Scanner sc = new Scanner(System.in);
-        System.out.println("Give the number of players: ");
-        int n = sc.nextInt();
-        sc.nextLine();
-        ArrayList<Player> list = new ArrayList<>();
-        for (int i = 0; i < n; i++) {
-            System.out.println("Player " + (i + 1) + " name: ");
-            String name = sc.nextLine();
-            list.add(new Player(name));
+        GameEngine ge = resumeGame(sc);
+        if (ge == null) {
+            ge = newGame(sc);
         }
-        GameEngine ge = new GameEngine(list);
         while (true) {
             System.out.println("Do you want to play the game? (1/0): ");
             int ip = sc.nextInt();
@@ -27,9 +31,71 @@ public class Executer {
             } else {
                 ge.showResults();
                 ge.saveGameToFile("game_results.txt");
+                ge.closeJournal();
                 break;
             }
         }
         sc.close();
     }
+    private static GameEngine resumeGame(Scanner sc) {
+        if (!Files.exists(Paths.get(JOURNAL_FILE))) {
+            return null;
+        }
+        System.out.println("A saved game was found. Resume it? (1/0): ");
+        int ip = sc.nextInt();
+        sc.nextLine();
+        if (ip != 1) {
+            return null;
+        }
+        try {
+            GameEngine ge = GameEngine.recover(JOURNAL_FILE, SNAPSHOT_FILE, Dice.Rng.RANDOM);
+            System.out.println("Resumed at round " + ge.getRoundNumber() + " with " + ge.getDice().getRng());
+            ge.showResults();
+            return ge;
+        } catch (IOException e) {
+            System.err.println("Could not resume game: " + e.getMessage());
+            return null;
+        }
+    }
+    private static GameEngine newGame(Scanner sc) {
+        System.out.println("Give the number of players: ");
+        int n = sc.nextInt();
+        sc.nextLine();
+        ArrayList<Player> list = new ArrayList<>();
+        for (int i = 0; i < n; i++) {
+            System.out.println("Player " + (i + 1) + " name: ");
+            String name = sc.nextLine();
+            list.add(new Player(name));
+        }
+        System.out.println("Random generator " + Arrays.toString(Dice.Rng.values()) + " (blank for RANDOM): ");
+        Dice.Rng rng;
+        try {
+            rng = Dice.Rng.parse(sc.nextLine());
+        } catch (IllegalArgumentException e) {
+            System.out.println("Unknown generator, using RANDOM");
+            rng = Dice.Rng.RANDOM;
+        }
+        Dice dice = new Dice(rng);
+        while (rng.isSeedable()) {
+            System.out.println("Seed (blank for a random seed): ");
+            String seed = sc.nextLine().trim();
+            if (seed.isEmpty()) {
+                break;
+            }
+            try {
+                dice = new Dice(rng, Long.parseLong(seed));
+                break;
+            } catch (NumberFormatException e) {
+                System.out.println("Not a whole number: " + seed);
+            }
+        }
+        GameEngine ge = new GameEngine(list, dice);
+        ge.enableSnapshots(SNAPSHOT_FILE, GameEngine.DEFAULT_SNAPSHOT_EVERY);
+        try {
+            ge.openJournal(JOURNAL_FILE);
+        } catch (IOException e) {
+            System.err.println("Could not open game journal: " + e.getMessage());
+        }
+        return ge;
+    }
 }
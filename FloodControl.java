@@ -0,0 +1,85 @@
+import java.util.concurrent.atomic.LongAdder;
+// Server-wide limits on how fast clients may drive the game, plus counters of what they cost. Each
+// connection gets a token bucket for its commands; ROLL_DICE requests arriving within the roll window
+// of a pending one join that round instead of playing their own.
+public class FloodControl {
+    public static final double DEFAULT_COMMANDS_PER_SECOND = 50;
+    public static final int DEFAULT_BURST = 100;
+    private volatile double commandsPerSecond = DEFAULT_COMMANDS_PER_SECOND;
+    private volatile int burst = DEFAULT_BURST;
+    private volatile long rollWindowMillis;
+    private final LongAdder rateLimited = new LongAdder();
+    private final LongAdder coalescedRolls = new LongAdder();
+    // commandsPerSecond <= 0 turns rate limiting off; applies to connections accepted afterwards.
+    public void setRateLimit(double commandsPerSecond, int burst) {
+        if (burst < 1) {
+            throw new IllegalArgumentException("Burst must be positive: " + burst);
+        }
+        this.commandsPerSecond = commandsPerSecond;
+        this.burst = burst;
+    }
+    // 0 plays every ROLL_DICE as its own round.
+    public void setRollWindowMillis(long rollWindowMillis) {
+        if (rollWindowMillis < 0) {
+            throw new IllegalArgumentException("Roll window must not be negative: " + rollWindowMillis);
+        }
+        this.rollWindowMillis = rollWindowMillis;
+    }
+    public long getRollWindowMillis() {
+        return rollWindowMillis;
+    }
+    // Returns null when rate limiting is off.
+    TokenBucket newBucket() {
+        double rate = commandsPerSecond;
+        return rate > 0 ? new TokenBucket(rate, burst) : null;
+    }
+    void recordRateLimited() {
+        rateLimited.increment();
+    }
+    void recordCoalescedRoll() {
+        coalescedRolls.increment();
+    }
+    public long getRateLimited() {
+        return rateLimited.sum();
+    }
+    public long getCoalescedRolls() {
+        return coalescedRolls.sum();
+    }
+    // Not thread-safe: only the thread reading the connection's commands uses it.
+    static final class TokenBucket {
+        private final double tokensPerNano;
+        private final int capacity;
+        private double tokens;
+        private long refilledAt;
+        private boolean rejecting;
+        TokenBucket(double tokensPerSecond, int capacity) {
+            this(tokensPerSecond, capacity, System.nanoTime());
+        }
+        TokenBucket(double tokensPerSecond, int capacity, long now) {
+            this.tokensPerNano = tokensPerSecond / 1e9;
+            this.capacity = capacity;
+            this.tokens = capacity;
+            this.refilledAt = now;
+        }
+        boolean tryAcquire() {
+            return tryAcquire(System.nanoTime());
+        }
+        boolean tryAcquire(long now) {
+            tokens = Math.min(capacity, tokens + (now - refilledAt) * tokensPerNano);
+            refilledAt = now;
+            if (tokens >= 1) {
+                tokens -= 1;
+                rejecting = false;
+                return true;
+            }
+            return false;
+        }
+        // True for the first rejection after an accepted command, so each run of rejected commands gets
+        // one error reply rather than one per command.
+        boolean startRejecting() {
+            boolean first = !rejecting;
+            rejecting = true;
+            return first;
+        }
+    }
+}
@@ -1,115 +1,388 @@
 import java.io.FileWriter;
 import java.io.IOException;
-import java.time.LocalDateTime;
-import java.time.format.DateTimeFormatter;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Paths;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 public class GameEngine {
+    private static final int SIMULATION_BLOCK_FACES = 4096;
+    public static final int DEFAULT_SNAPSHOT_EVERY = 1000;
     private ArrayList<Player> players;
     private Dice dice;
-    private List<String> gameLog;
+    private int dicePerPlayer;
+    private int[] faceBuffer;
+    private int[] rollBuffer;
+    private RoundHistory history;
+    private RoundJournal journal;
+    private GameStatistics statistics;
+    private Leaderboard leaderboard;
+    private String tableId;
+    private String snapshotPath;
+    private int snapshotEvery;
     private int roundNumber;
     public GameEngine(ArrayList<Player> players) {
+        this(players, new Dice());
+    }
+    public GameEngine(ArrayList<Player> players, Dice dice) {
+        this(players, dice, 1);
+    }
+    public GameEngine(ArrayList<Player> players, Dice dice, int dicePerPlayer) {
+        this(players, dice, dicePerPlayer, RoundHistory.DEFAULT_CAPACITY);
+    }
+    public GameEngine(ArrayList<Player> players, Dice dice, int dicePerPlayer, int historyCapacity) {
+        if (dicePerPlayer < 1) {
+            throw new IllegalArgumentException("Each player needs at least one die: " + dicePerPlayer);
+        }
         this.players = players;
-        this.dice = new Dice();
-        this.gameLog = new ArrayList<>();
+        this.dice = dice;
+        this.dicePerPlayer = dicePerPlayer;
+        this.faceBuffer = new int[0];
+        this.rollBuffer = new int[0];
+        this.history = new RoundHistory(players, historyCapacity, RoundHistory.OverflowPolicy.DISCARD, null, dice.getSides() * dicePerPlayer);
+        this.leaderboard = new Leaderboard(players);
+        this.statistics = new GameStatistics(players.size(), dice.getSides(), dice.getSides() * dicePerPlayer);
         this.roundNumber = 0;
     }
     public GameResult playRound() {
         roundNumber++;
         int highestRoll = 0;
-        Player winner = null;
-        ArrayList<Player> tiedPlayers = new ArrayList<>();
+        int winnerIndex = -1;
         ArrayList<Integer> playerRolls = new ArrayList<>();
-        StringBuilder roundLog = new StringBuilder();
-        roundLog.append("Round ").append(roundNumber).append(": ");
-        for (Player player : players) {
-            int roll = dice.roll();
+        int playerCount = players.size();
+        int faceCount = playerCount * dicePerPlayer;
+        if (faceBuffer.length < faceCount) {
+            faceBuffer = new int[faceCount];
+        }
+        if (rollBuffer.length < playerCount) {
+            rollBuffer = new int[playerCount];
+        }
+        dice.rollInto(faceBuffer, 0, faceCount);
+        int face = 0;
+        for (int i = 0; i < playerCount; i++) {
+            int roll = faceBuffer[face++];
+            for (int d = 1; d < dicePerPlayer; d++) {
+                roll += faceBuffer[face++];
+            }
+            rollBuffer[i] = roll;
             playerRolls.add(roll);
-            roundLog.append(player.showName()).append(" rolled ").append(roll).append(", ");
             if (roll > highestRoll) {
                 highestRoll = roll;
-                winner = player;
-                tiedPlayers.clear();
-                tiedPlayers.add(player);
+                winnerIndex = i;
             } else if (roll == highestRoll) {
-                if (!tiedPlayers.contains(player)) {
-                    if (winner != null && !tiedPlayers.contains(winner)) {
-                        tiedPlayers.add(winner);
-                    }
-                    tiedPlayers.add(player);
-                }
-                winner = null; // Tie situation
+                winnerIndex = -1; // Tie situation
             }
         }
-        if (winner != null) {
+        Player winner = null;
+        if (winnerIndex >= 0) {
+            winner = players.get(winnerIndex);
             winner.incrementWin();
-            roundLog.append(" Winner: ").append(winner.showName());
-        } else {
-            roundLog.append(" Tie between: ");
-            for (int i = 0; i < tiedPlayers.size(); i++) {
-                roundLog.append(tiedPlayers.get(i).showName());
-                if (i < tiedPlayers.size() - 1) roundLog.append(", ");
+        }
+        history.record(roundNumber, rollBuffer, winnerIndex);
+        statistics.recordRound(rollBuffer, winnerIndex, faceBuffer, faceCount);
+        if (journal != null) {
+            try {
+                journal.append(roundNumber, rollBuffer, winnerIndex);
+            } catch (IOException e) {
+                System.err.println("Error writing round to journal: " + e.getMessage());
+            }
+            if (snapshotPath != null && roundNumber % snapshotEvery == 0) {
+                writeSnapshot();
             }
         }
-        gameLog.add(roundLog.toString());
-        return new GameResult(roundNumber, players, playerRolls, winner, highestRoll);
+        return new GameResult(roundNumber, players, playerRolls, winner, winnerIndex, highestRoll);
+    }
+    public SimulationSummary simulate(long rounds) {
+        long[] wins = new long[players.size()];
+        long ties = simulateRounds(dice, dicePerPlayer, rounds, wins);
+        return new SimulationSummary(players, rounds, wins, ties);
+    }
+    static long simulateRounds(Dice dice, int dicePerPlayer, long rounds, long[] wins) {
+        int playerCount = wins.length;
+        int facesPerRound = playerCount * dicePerPlayer;
+        if (facesPerRound == 0) {
+            return rounds;
+        }
+        // Roll many rounds per bulk call so each random word is fully used.
+        int blockRounds = Math.max(1, SIMULATION_BLOCK_FACES / facesPerRound);
+        int[] faces = new int[blockRounds * facesPerRound];
+        long ties = 0;
+        long remaining = rounds;
+        while (remaining > 0) {
+            int block = (int) Math.min(blockRounds, remaining);
+            dice.rollInto(faces, 0, block * facesPerRound);
+            int face = 0;
+            for (int round = 0; round < block; round++) {
+                int highestRoll = 0;
+                int winnerIndex = -1;
+                for (int i = 0; i < playerCount; i++) {
+                    int roll = faces[face++];
+                    for (int d = 1; d < dicePerPlayer; d++) {
+                        roll += faces[face++];
+                    }
+                    if (roll > highestRoll) {
+                        highestRoll = roll;
+                        winnerIndex = i;
+                    } else if (roll == highestRoll) {
+                        winnerIndex = -1;
+                    }
+                }
+                if (winnerIndex >= 0) {
+                    wins[winnerIndex]++;
+                } else {
+                    ties++;
+                }
+            }
+            remaining -= block;
+        }
+        return ties;
     }
     public void showResults() {
         for (Player player : players) {
             System.out.println(player.showName() + " has won " + player.showWins() + " rounds");
         }
+        System.out.println("Standings:");
+        for (int i = 0; i < leaderboard.size(); i++) {
+            Player player = leaderboard.atPosition(i);
+            System.out.println(leaderboard.rankOf(player) + ". " + player.showName() + " - " + player.showWins() + " wins");
+        }
+        System.out.println(statistics.snapshot().describe(players));
     }
     public ArrayList<Player> getPlayers() {
         return players;
     }
     public void saveGameToFile(String filename) {
-        try (FileWriter writer = new FileWriter(filename, true)) {
-            writer.write("=== Dice Game Results ===\n");
-            writer.write("Date: " + LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss")) + "\n");
-            writer.write("Players: " + players.size() + "\n\n");
-            for (String log : gameLog) {
-                writer.write(log + "\n");
+        if (journal != null) {
+            try {
+                journal.flush();
+                JournalExporter.exportText(journal.getPath(), filename);
+            } catch (IOException e) {
+                System.err.println("Error saving game to file: " + e.getMessage());
             }
-            writer.write("\nFinal Results:\n");
-            for (Player player : players) {
-                writer.write(player.showName() + ": " + player.showWins() + " wins\n");
+            return;
+        }
+        try (FileWriter writer = new FileWriter(filename)) {
+            JournalExporter.writeHeader(writer, players.size(), history.getRecordedRounds());
+            // Without a journal only what the history kept can be listed; say so instead of implying it is complete.
+            long discarded = history.getDiscardedRounds();
+            if (discarded > 0) {
+                writer.write("Note: the first " + discarded + " rounds were discarded from the in-memory history and are not listed;"
+                        + " open a journal or spill the history to disk to keep them\n");
             }
-            writer.write("\n" + "=".repeat(50) + "\n\n");
-        } catch (IOException e) {
+            writer.write("\n");
+            history.forEachLine(log -> {
+                try {
+                    writer.write(log + "\n");
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+            JournalExporter.writeResults(writer, players);
+        } catch (IOException | UncheckedIOException e) {
             System.err.println("Error saving game to file: " + e.getMessage());
         }
     }
-    public void resetGame() {
-        for (Player player : players) {
-            player.resetWins();
+    public void openJournal(String path) throws IOException {
+        closeJournal();
+        journal = RoundJournal.create(path, players, dice.getSides(), dicePerPlayer, dice.getRng());
+        if (snapshotPath != null) {
+            Files.deleteIfExists(Paths.get(snapshotPath));
+        }
+    }
+    // Snapshots are pinned to journal offsets, so they are only taken while a journal is open.
+    public void enableSnapshots(String path, int everyRounds) {
+        if (everyRounds < 1) {
+            throw new IllegalArgumentException("Snapshot interval must be positive: " + everyRounds);
+        }
+        this.snapshotPath = path;
+        this.snapshotEvery = everyRounds;
+    }
+    public void writeSnapshot() {
+        if (journal == null || snapshotPath == null) return;
+        try {
+            journal.flush();
+            GameSnapshot.of(roundNumber, journal.position(), players, statistics).write(snapshotPath);
+        } catch (IOException e) {
+            System.err.println("Error writing snapshot: " + e.getMessage());
+        }
+    }
+    // Rebuilds an engine from the latest snapshot plus the journal records written after it, then keeps
+    // journaling to the same file. Returns null when there is no journal to resume.
+    public static GameEngine recover(String journalPath, String snapshotPath, Dice.Rng rng) throws IOException {
+        if (!Files.exists(Paths.get(journalPath))) {
+            return null;
+        }
+        String[] names;
+        int sides;
+        int dicePerPlayer;
+        try (RoundJournal.Reader header = new RoundJournal.Reader(journalPath)) {
+            names = header.getNames();
+            sides = header.getSides();
+            dicePerPlayer = header.getDicePerPlayer();
+            if (header.getRng() != null) {
+                rng = header.getRng();
+            }
+        }
+        GameSnapshot snapshot = null;
+        if (snapshotPath != null && Files.exists(Paths.get(snapshotPath))) {
+            try {
+                snapshot = GameSnapshot.read(snapshotPath);
+                if (!Arrays.equals(snapshot.getNames(), names) || snapshot.getJournalPosition() > Files.size(Paths.get(journalPath))) {
+                    snapshot = null;
+                }
+            } catch (IOException e) {
+                System.err.println("Ignoring unreadable snapshot: " + e.getMessage());
+                snapshot = null;
+            }
+        }
+        ArrayList<Player> players = new ArrayList<>();
+        for (int i = 0; i < names.length; i++) {
+            players.add(new Player(names[i], snapshot != null ? snapshot.getWins()[i] : 0));
+        }
+        GameEngine engine = new GameEngine(players, new Dice(rng, sides), dicePerPlayer);
+        long start = snapshot != null ? snapshot.getJournalPosition() : 0;
+        engine.roundNumber = snapshot != null ? snapshot.getRoundNumber() : 0;
+        // Older snapshots carry no counters; the statistics then only cover the replayed tail.
+        if (snapshot != null && snapshot.getStatistics() != null && !engine.statistics.restore(snapshot.getStatistics())) {
+            System.err.println("Ignoring snapshot statistics for a different table");
+        }
+        long validLength;
+        try (RoundJournal.Reader reader = new RoundJournal.Reader(journalPath, start)) {
+            while (reader.next()) {
+                int winnerIndex = reader.getWinnerIndex();
+                if (winnerIndex >= 0) {
+                    players.get(winnerIndex).incrementWin();
+                }
+                engine.roundNumber = reader.getRoundNumber();
+                engine.history.record(reader.getRoundNumber(), reader.getRolls(), winnerIndex);
+                // With one die per player the rolls are the faces; otherwise the journal has no faces to count.
+                engine.statistics.recordRound(reader.getRolls(), winnerIndex, reader.getRolls(), dicePerPlayer == 1 ? names.length : 0);
+            }
+            validLength = reader.getPosition();
+        }
+        engine.journal = RoundJournal.openForAppend(journalPath, names.length, validLength, engine.roundNumber);
+        if (snapshotPath != null) {
+            engine.snapshotPath = snapshotPath;
+            engine.snapshotEvery = DEFAULT_SNAPSHOT_EVERY;
         }
-        gameLog.clear();
+        return engine;
+    }
+    public void closeJournal() {
+        if (journal != null) {
+            writeSnapshot();
+            try {
+                journal.close();
+            } catch (IOException e) {
+                System.err.println("Error closing journal: " + e.getMessage());
+            }
+            journal = null;
+        }
+    }
+    public RoundJournal getJournal() {
+        return journal;
+    }
+    public void resetGame() {
+        leaderboard.resetAll();
+        history.clear();
+        statistics.reset();
         roundNumber = 0;
+        if (journal != null) {
+            String path = journal.getPath();
+            try {
+                openJournal(path);
+            } catch (IOException e) {
+                System.err.println("Error restarting journal " + path + ": " + e.getMessage());
+            }
+        }
     }
     public List<String> getGameLog() {
-        return gameLog;
+        return history.asLog();
+    }
+    public String getTableId() {
+        return tableId;
+    }
+    public void setTableId(String tableId) {
+        this.tableId = tableId;
+    }
+    public Leaderboard getLeaderboard() {
+        return leaderboard;
+    }
+    public GameStatistics getStatistics() {
+        return statistics;
+    }
+    public RoundHistory getHistory() {
+        return history;
     }
     public int getRoundNumber() {
         return roundNumber;
     }
+    public Dice getDice() {
+        return dice;
+    }
+    public int getDicePerPlayer() {
+        return dicePerPlayer;
+    }
+    public int getMaxRoll() {
+        return dice.getSides() * dicePerPlayer;
+    }
     public static class GameResult {
         private int roundNumber;
         private ArrayList<Player> players;
         private ArrayList<Integer> rolls;
         private Player winner;
+        private int winnerIndex;
         private int winningRoll;
         public GameResult(int roundNumber, ArrayList<Player> players, ArrayList<Integer> rolls, Player winner, int winningRoll) {
+            this(roundNumber, players, rolls, winner, winner == null ? -1 : players.indexOf(winner), winningRoll);
+        }
+        GameResult(int roundNumber, ArrayList<Player> players, ArrayList<Integer> rolls, Player winner, int winnerIndex, int winningRoll) {
             this.roundNumber = roundNumber;
             this.players = new ArrayList<>(players);
             this.rolls = new ArrayList<>(rolls);
             this.winner = winner;
+            this.winnerIndex = winnerIndex;
+            this.winningRoll = winningRoll;
+        }
+        protected GameResult(int roundNumber, int winningRoll) {
+            this.roundNumber = roundNumber;
+            this.winnerIndex = -1;
             this.winningRoll = winningRoll;
         }
         public int getRoundNumber() { return roundNumber; }
         public ArrayList<Player> getPlayers() { return players; }
         public ArrayList<Integer> getRolls() { return rolls; }
         public Player getWinner() { return winner; }
+        // Index into getPlayers(), or -1 on a tie.
+        public int getWinnerIndex() { return winnerIndex; }
         public int getWinningRoll() { return winningRoll; }
     }
+    public static class SimulationSummary {
+        private ArrayList<Player> players;
+        private long rounds;
+        private long[] wins;
+        private long ties;
+        public SimulationSummary(ArrayList<Player> players, long rounds, long[] wins, long ties) {
+            this.players = new ArrayList<>(players);
+            this.rounds = rounds;
+            this.wins = wins;
+            this.ties = ties;
+        }
+        public ArrayList<Player> getPlayers() { return players; }
+        public long getRounds() { return rounds; }
+        public long getWins(int playerIndex) { return wins[playerIndex]; }
+        public long getTies() { return ties; }
+        public double getWinRate(int playerIndex) { return rounds == 0 ? 0 : (double) wins[playerIndex] / rounds; }
+        public double getTieRate() { return rounds == 0 ? 0 : (double) ties / rounds; }
+        @Override
+        public String toString() {
+            StringBuilder sb = new StringBuilder();
+            sb.append("Simulated ").append(rounds).append(" rounds\n");
+            for (int i = 0; i < players.size(); i++) {
+                sb.append(players.get(i).showName()).append(": ").append(wins[i]).append(" wins\n");
+            }
+            sb.append("Ties: ").append(ties);
+            return sb.toString();
+        }
+    }
 }
@@ -0,0 +1,346 @@
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Supplier;
+// One game hosted by MultiplayerServer. A room is pinned to a single-threaded shard executor and all
+// of its state is only touched from tasks run there, so rooms need no locks and never contend with
+// each other; broadcasts go to this room's members only. Commands wait in the room's mailbox and are
+// drained in batches: one shard task per burst instead of one per command, and a room flooded with
+// rolls yields the shard after MAX_BATCH commands so the other rooms on it keep their latency.
+public class GameRoom {
+    public static final int ROOM_HISTORY_CAPACITY = 100;
+    public static final int MAX_BATCH = 256;
+    // Delta clients get the full roster again this often. A client whose queue dropped a delta gets it
+    // right away; the keyframe is the backstop for anything else that left its counters behind.
+    public static final int KEYFRAME_EVERY = 100;
+    private String id;
+    private ScheduledExecutorService shard;
+    private final Queue<Runnable> mailbox = new ConcurrentLinkedQueue<>();
+    private final AtomicBoolean scheduled = new AtomicBoolean();
+    private Dice.Rng rng;
+    private String journalFile;
+    private String snapshotFile;
+    private List<ClientConnection> members;
+    private GameEngine gameEngine;
+    private Map<String, Player> playersByName;
+    private boolean gameStarted;
+    private boolean closed;
+    private boolean countPending;
+    private FloodControl floodControl;
+    private boolean rollPending;
+    // journalFile and snapshotFile may be null for rooms that are not persisted.
+    public GameRoom(String id, ScheduledExecutorService shard, Dice.Rng rng, String journalFile, String snapshotFile,
+                    FloodControl floodControl) {
+        this.id = id;
+        this.shard = shard;
+        this.rng = rng;
+        this.journalFile = journalFile;
+        this.snapshotFile = snapshotFile;
+        this.floodControl = floodControl;
+        this.members = new ArrayList<>();
+    }
+    public String getId() {
+        return id;
+    }
+    // Callable from any thread; tasks run one at a time, in order, on the shard.
+    public void execute(Runnable task) {
+        mailbox.add(task);
+        if (scheduled.compareAndSet(false, true)) {
+            schedule();
+        }
+    }
+    private void schedule() {
+        try {
+            shard.execute(this::drain);
+        } catch (RejectedExecutionException e) {
+            // The shard has been shut down along with the server.
+            mailbox.clear();
+        }
+    }
+    private void drain() {
+        for (int i = 0; i < MAX_BATCH; i++) {
+            Runnable task = mailbox.poll();
+            if (task == null) break;
+            try {
+                task.run();
+            } catch (RuntimeException e) {
+                System.err.println("Error in room " + id + ": " + e);
+            }
+        }
+        scheduled.set(false);
+        if (!mailbox.isEmpty() && scheduled.compareAndSet(false, true)) {
+            schedule();
+        }
+    }
+    // The methods below must run on the room's shard, normally through execute.
+    void resume() {
+        if (journalFile == null) return;
+        try {
+            GameEngine recovered = GameEngine.recover(journalFile, snapshotFile, rng);
+            if (recovered != null) {
+                gameEngine = recovered;
+                indexPlayers();
+                gameStarted = true;
+                System.out.println("Room " + id + " resumed at round " + recovered.getRoundNumber());
+            }
+        } catch (IOException e) {
+            System.err.println("Could not resume room " + id + ": " + e.getMessage());
+        }
+    }
+    // Returns false when the room was closed before the join ran.
+    boolean join(ClientConnection client) {
+        if (closed) {
+            return false;
+        }
+        members.add(client);
+        client.sendMessage("ROOM_JOINED:" + id);
+        sendRoster(client);
+        announceCount();
+        return true;
+    }
+    void leave(ClientConnection client) {
+        if (members.remove(client)) {
+            client.sendMessage("ROOM_LEFT:" + id);
+            announceCount();
+        }
+    }
+    // Joins and leaves queued behind each other share one PLAYER_COUNT broadcast; otherwise a crowded
+    // lobby would send members^2 messages while filling up.
+    private void announceCount() {
+        if (countPending) return;
+        countPending = true;
+        execute(() -> {
+            countPending = false;
+            if (!closed) {
+                broadcast(OutboundQueue.Message.latest("PLAYER_COUNT:" + members.size()));
+            }
+        });
+    }
+    boolean isEmpty() {
+        return members.isEmpty();
+    }
+    void close() {
+        closed = true;
+        if (gameEngine != null) {
+            gameEngine.closeJournal();
+        }
+    }
+    void broadcast(String message) {
+        broadcast(OutboundQueue.Message.of(message));
+    }
+    private void broadcast(OutboundQueue.Message message) {
+        for (ClientConnection member : members) {
+            member.send(message);
+        }
+    }
+    // Sends full text to plain clients and the delta form to the rest, building only the encodings
+    // some member reads; the delta text stands in when there is no frame. full may be null when plain
+    // clients get nothing. The full form always supersedes earlier ones; compact says how the delta
+    // form may be treated by a full queue.
+    private void broadcast(String kind, OutboundQueue.Delivery compact, Supplier<String> full, Supplier<String> delta,
+                           Supplier<byte[]> frame) {
+        boolean needFull = false;
+        boolean needDelta = false;
+        boolean needFrame = false;
+        for (ClientConnection member : members) {
+            if (member.isBinary()) {
+                needFrame = true;
+            } else if (member.wantsDeltas()) {
+                needDelta = true;
+            } else {
+                needFull = true;
+            }
+        }
+        OutboundQueue.Message fullMessage = needFull && full != null ? OutboundQueue.Message.of(kind, OutboundQueue.Delivery.LATEST, full.get(), null) : null;
+        OutboundQueue.Message deltaMessage = null;
+        if (needDelta || needFrame) {
+            byte[] encoded = needFrame ? frame.get() : null;
+            deltaMessage = OutboundQueue.Message.of(kind, compact, needDelta || encoded == null ? delta.get() : null, encoded);
+        }
+        for (ClientConnection member : members) {
+            // A member that switched since the first pass still gets a form it can read.
+            OutboundQueue.Message message = member.wantsDeltas() && deltaMessage != null ? deltaMessage : fullMessage;
+            if (message != null) {
+                member.send(message);
+                if (message == deltaMessage && member.takeMissedDelta()) {
+                    sendRoster(member);
+                }
+            }
+        }
+    }
+    // Deltas refer to players by ID, so such a client needs the roster of a game that started before
+    // it joined or negotiated.
+    void sendRoster(ClientConnection client) {
+        if (gameEngine == null || !client.wantsDeltas() || !members.contains(client)) {
+            return;
+        }
+        ArrayList<Player> players = gameEngine.getPlayers();
+        client.send(client.isBinary()
+                ? OutboundQueue.Message.of("PLAYERS", OutboundQueue.Delivery.ALWAYS, null, WireProtocol.playersFrame(players))
+                : OutboundQueue.Message.of("PLAYERS", OutboundQueue.Delivery.ALWAYS, MultiplayerServer.encodeRoster(players), null));
+    }
+    void handle(ClientConnection client, String command, String argument) {
+        switch (command) {
+            case "START_GAME":
+                startGame();
+                break;
+            case "ROLL_DICE":
+                requestRoll();
+                break;
+            case "GET_TOP":
+                client.sendMessage(topMessage(parseCount(argument, 10)));
+                break;
+            case "GET_AROUND":
+                client.sendMessage(aroundMessage(client.getPlayerName(), parseCount(argument, 2)));
+                break;
+            case "GET_RANK":
+                client.sendMessage(rankMessage(client.getPlayerName()));
+                break;
+            case "GET_ODDS":
+                client.sendMessage(oddsMessage());
+                break;
+            case "GET_STATUS":
+                client.sendMessage("GAME_STATUS:" + (gameStarted ? "STARTED" : "WAITING"));
+                break;
+        }
+    }
+    private static int parseCount(String argument, int defaultCount) {
+        if (argument == null) return defaultCount;
+        try {
+            return Math.max(0, Math.min(Integer.parseInt(argument.trim()), 1000));
+        } catch (NumberFormatException e) {
+            return defaultCount;
+        }
+    }
+    void startGame() {
+        if (members.size() < 2) {
+            broadcast("ERROR:Need at least 2 players to start");
+            return;
+        }
+        ArrayList<Player> players = new ArrayList<>();
+        for (ClientConnection member : members) {
+            players.add(new Player(member.getPlayerName()));
+        }
+        if (gameEngine != null) {
+            gameEngine.closeJournal();
+        }
+        if (journalFile != null) {
+            gameEngine = new GameEngine(players, new Dice(rng));
+            gameEngine.enableSnapshots(snapshotFile, GameEngine.DEFAULT_SNAPSHOT_EVERY);
+            try {
+                gameEngine.openJournal(journalFile);
+            } catch (IOException e) {
+                System.err.println("Could not open game journal: " + e.getMessage());
+            }
+        } else {
+            gameEngine = new GameEngine(players, new Dice(rng), 1, ROOM_HISTORY_CAPACITY);
+        }
+        gameEngine.setTableId(id);
+        indexPlayers();
+        gameStarted = true;
+        broadcast("GAME_STARTED");
+        broadcastPlayerList();
+        broadcast(oddsMessage());
+    }
+    // Rolls requested while one is pending within the window share its round.
+    private void requestRoll() {
+        long window = floodControl.getRollWindowMillis();
+        if (window <= 0) {
+            playRound();
+        } else if (rollPending) {
+            floodControl.recordCoalescedRoll();
+        } else {
+            rollPending = true;
+            try {
+                shard.schedule(() -> execute(() -> {
+                    rollPending = false;
+                    playRound();
+                }), window, TimeUnit.MILLISECONDS);
+            } catch (RejectedExecutionException e) {
+                // The shard has been shut down along with the server.
+            }
+        }
+    }
+    void playRound() {
+        if (!gameStarted || gameEngine == null) {
+            broadcast("ERROR:Game not started");
+            return;
+        }
+        GameEngine.GameResult result = gameEngine.playRound();
+        broadcast("ROUND_RESULT", OutboundQueue.Delivery.DELTA, () -> MultiplayerServer.encodeRoundResult(result),
+                () -> MultiplayerServer.encodeDelta(result), () -> WireProtocol.roundFrame(result));
+        if (result.getRoundNumber() % KEYFRAME_EVERY == 0) {
+            broadcastRoster(null);
+        }
+    }
+    private void broadcastPlayerList() {
+        if (gameEngine == null) return;
+        broadcastRoster(this::playerListMessage);
+    }
+    private void broadcastRoster(Supplier<String> full) {
+        ArrayList<Player> players = gameEngine.getPlayers();
+        broadcast("PLAYERS", OutboundQueue.Delivery.ALWAYS, full, () -> MultiplayerServer.encodeRoster(players), () -> WireProtocol.playersFrame(players));
+    }
+    private String playerListMessage() {
+        StringBuilder playerData = new StringBuilder("PLAYERS:");
+        ArrayList<Player> players = gameEngine.getPlayers();
+        for (int i = 0; i < players.size(); i++) {
+            playerData.append(players.get(i).showName()).append(":").append(players.get(i).showWins());
+            if (i < players.size() - 1) playerData.append(",");
+        }
+        return playerData.toString();
+    }
+    private void indexPlayers() {
+        playersByName = new HashMap<>();
+        for (Player player : gameEngine.getPlayers()) {
+            playersByName.putIfAbsent(player.showName(), player);
+        }
+    }
+    String topMessage(int k) {
+        if (gameEngine == null) return "ERROR:Game not started";
+        return "TOP:" + standings(gameEngine.getLeaderboard().top(k));
+    }
+    String aroundMessage(String playerName, int radius) {
+        if (gameEngine == null) return "ERROR:Game not started";
+        Player player = playersByName.get(playerName);
+        if (player == null) return "ERROR:Not playing in this game";
+        return "AROUND:" + standings(gameEngine.getLeaderboard().around(player, radius));
+    }
+    String rankMessage(String playerName) {
+        if (gameEngine == null) return "ERROR:Game not started";
+        Player player = playersByName.get(playerName);
+        if (player == null) return "ERROR:Not playing in this game";
+        Leaderboard leaderboard = gameEngine.getLeaderboard();
+        return "RANK:" + leaderboard.rankOf(player) + ":" + player.showWins() + ":" + leaderboard.size();
+    }
+    private String standings(List<Player> players) {
+        Leaderboard leaderboard = gameEngine.getLeaderboard();
+        StringBuilder data = new StringBuilder();
+        for (int i = 0; i < players.size(); i++) {
+            Player player = players.get(i);
+            data.append(leaderboard.rankOf(player)).append(":").append(player.showName()).append(":").append(player.showWins());
+            if (i < players.size() - 1) data.append(",");
+        }
+        return data.toString();
+    }
+    String oddsMessage() {
+        int playerCount = gameEngine != null ? gameEngine.getPlayers().size() : members.size();
+        if (playerCount < 1) {
+            return "ERROR:No players";
+        }
+        int sides = gameEngine != null ? gameEngine.getDice().getSides() : Dice.DEFAULT_SIDES;
+        int dicePerPlayer = gameEngine != null ? gameEngine.getDicePerPlayer() : 1;
+        OddsCalculator.Odds odds = OddsCalculator.forGame(playerCount, sides, dicePerPlayer);
+        return String.format(Locale.ROOT, "ODDS:%d;%.6f;%.6f;%.4f", playerCount,
+                odds.getPlayerWinProbability(), odds.getTieProbability(), odds.getExpectedWinningRoll());
+    }
+}
@@ -0,0 +1,91 @@
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.List;
+// Compact engine state pinned to a byte offset in the round journal; recovery loads it and
+// replays only the journal records written after that offset. Version 2 adds the GameStatistics
+// counters, which the journal alone cannot rebuild (it keeps roll totals, not faces).
+public class GameSnapshot {
+    private static final int MAGIC = 0x44475331;
+    private static final int VERSION = 2;
+    private int roundNumber;
+    private long journalPosition;
+    private String[] names;
+    private int[] wins;
+    private GameStatistics.Snapshot statistics;
+    // statistics may be null, as it is for snapshots written before version 2.
+    public GameSnapshot(int roundNumber, long journalPosition, String[] names, int[] wins, GameStatistics.Snapshot statistics) {
+        this.roundNumber = roundNumber;
+        this.journalPosition = journalPosition;
+        this.names = names;
+        this.wins = wins;
+        this.statistics = statistics;
+    }
+    public static GameSnapshot of(int roundNumber, long journalPosition, List<Player> players, GameStatistics statistics) {
+        String[] names = new String[players.size()];
+        int[] wins = new int[players.size()];
+        for (int i = 0; i < names.length; i++) {
+            names[i] = players.get(i).showName();
+            wins[i] = players.get(i).showWins();
+        }
+        return new GameSnapshot(roundNumber, journalPosition, names, wins, statistics.snapshot());
+    }
+    // Written to a temporary file and moved into place so a crash never leaves a half-written snapshot.
+    public void write(String path) throws IOException {
+        Path target = Paths.get(path);
+        Path temp = Paths.get(path + ".tmp");
+        try (FileOutputStream file = new FileOutputStream(temp.toFile());
+             DataOutputStream out = new DataOutputStream(new BufferedOutputStream(file))) {
+            out.writeInt(MAGIC);
+            out.writeShort(VERSION);
+            out.writeInt(roundNumber);
+            out.writeLong(journalPosition);
+            out.writeInt(names.length);
+            for (int i = 0; i < names.length; i++) {
+                out.writeUTF(names[i]);
+                out.writeInt(wins[i]);
+            }
+            out.writeBoolean(statistics != null);
+            if (statistics != null) {
+                statistics.write(out);
+            }
+            out.flush();
+            file.getFD().sync();
+        }
+        Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+    public static GameSnapshot read(String path) throws IOException {
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(path)))) {
+            if (in.readInt() != MAGIC) {
+                throw new IOException(path + " is not a game snapshot");
+            }
+            int version = in.readUnsignedShort();
+            if (version < 1 || version > VERSION) {
+                throw new IOException("Unsupported snapshot version " + version);
+            }
+            int roundNumber = in.readInt();
+            long journalPosition = in.readLong();
+            String[] names = new String[in.readInt()];
+            int[] wins = new int[names.length];
+            for (int i = 0; i < names.length; i++) {
+                names[i] = in.readUTF();
+                wins[i] = in.readInt();
+            }
+            GameStatistics.Snapshot statistics = version >= 2 && in.readBoolean() ? GameStatistics.Snapshot.read(in) : null;
+            return new GameSnapshot(roundNumber, journalPosition, names, wins, statistics);
+        }
+    }
+    public int getRoundNumber() { return roundNumber; }
+    public long getJournalPosition() { return journalPosition; }
+    public String[] getNames() { return names; }
+    public int[] getWins() { return wins; }
+    public GameStatistics.Snapshot getStatistics() { return statistics; }
+}
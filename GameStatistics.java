@@ -0,0 +1,233 @@
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.lang.invoke.VarHandle;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+// Incremental per-table statistics. The game thread updates plain arrays in place; readers on other
+// threads take consistent copies through a sequence lock instead of pausing the game.
+public class GameStatistics {
+    private final int playerCount;
+    private final int sides;
+    private final int maxRoll;
+    private final long[] rollCounts;
+    private final long[] faceCounts;
+    private final int[] longestStreak;
+    private int streakHolder;
+    private int streakLength;
+    private long rounds;
+    private long ties;
+    private long faces;
+    private long faceSquares;
+    private volatile long version;
+    public GameStatistics(int playerCount, int sides, int maxRoll) {
+        this.playerCount = playerCount;
+        this.sides = sides;
+        this.maxRoll = maxRoll;
+        this.rollCounts = new long[playerCount * (maxRoll + 1)];
+        this.faceCounts = new long[sides + 1];
+        this.longestStreak = new int[playerCount];
+        this.streakHolder = -1;
+    }
+    public void recordRound(int[] rolls, int winnerIndex) {
+        beginWrite();
+        countRound(rolls, winnerIndex);
+        endWrite();
+    }
+    // One write section for the round and its faces, so no snapshot sees one without the other.
+    public void recordRound(int[] rolls, int winnerIndex, int[] rolledFaces, int faceCount) {
+        beginWrite();
+        countRound(rolls, winnerIndex);
+        countFaces(rolledFaces, faceCount);
+        endWrite();
+    }
+    public void recordFaces(int[] rolledFaces, int count) {
+        beginWrite();
+        countFaces(rolledFaces, count);
+        endWrite();
+    }
+    private void countRound(int[] rolls, int winnerIndex) {
+        rounds++;
+        for (int i = 0; i < playerCount; i++) {
+            rollCounts[i * (maxRoll + 1) + rolls[i]]++;
+        }
+        if (winnerIndex < 0) {
+            ties++;
+        }
+        // Only the last round's winner can hold a running streak, so one index tracks all of them.
+        if (winnerIndex >= 0 && winnerIndex == streakHolder) {
+            streakLength++;
+        } else {
+            streakHolder = winnerIndex;
+            streakLength = winnerIndex >= 0 ? 1 : 0;
+        }
+        if (winnerIndex >= 0 && streakLength > longestStreak[winnerIndex]) {
+            longestStreak[winnerIndex] = streakLength;
+        }
+    }
+    private void countFaces(int[] rolledFaces, int count) {
+        for (int i = 0; i < count; i++) {
+            long c = faceCounts[rolledFaces[i]]++;
+            // (c + 1)^2 - c^2 keeps the sum of squared counts current for the chi-square statistic.
+            faceSquares += 2 * c + 1;
+        }
+        faces += count;
+    }
+    private void beginWrite() {
+        version = version + 1;
+        VarHandle.storeStoreFence();
+    }
+    private void endWrite() {
+        version = version + 1;
+    }
+    public void reset() {
+        beginWrite();
+        Arrays.fill(rollCounts, 0);
+        Arrays.fill(faceCounts, 0);
+        Arrays.fill(longestStreak, 0);
+        streakHolder = -1;
+        streakLength = 0;
+        rounds = 0;
+        ties = 0;
+        faces = 0;
+        faceSquares = 0;
+        endWrite();
+    }
+    // Loads counters saved with Snapshot.write; returns false, leaving the counters alone, when the
+    // snapshot was taken for a different table shape.
+    public boolean restore(Snapshot saved) {
+        if (saved.playerCount != playerCount || saved.sides != sides || saved.maxRoll != maxRoll) {
+            return false;
+        }
+        beginWrite();
+        System.arraycopy(saved.rollCounts, 0, rollCounts, 0, rollCounts.length);
+        System.arraycopy(saved.faceCounts, 0, faceCounts, 0, faceCounts.length);
+        System.arraycopy(saved.longestStreak, 0, longestStreak, 0, longestStreak.length);
+        streakHolder = saved.streakHolder;
+        streakLength = saved.streakLength;
+        rounds = saved.rounds;
+        ties = saved.ties;
+        faces = saved.faces;
+        faceSquares = saved.faceSquares;
+        endWrite();
+        return true;
+    }
+    public Snapshot snapshot() {
+        while (true) {
+            long before = version;
+            if ((before & 1) != 0) {
+                Thread.onSpinWait();
+                continue;
+            }
+            Snapshot snapshot = new Snapshot(this);
+            VarHandle.loadLoadFence();
+            if (version == before) {
+                return snapshot;
+            }
+        }
+    }
+    public static class Snapshot {
+        private final int playerCount;
+        private final int sides;
+        private final int maxRoll;
+        private final long[] rollCounts;
+        private final long[] faceCounts;
+        private final int[] longestStreak;
+        private final int streakHolder;
+        private final int streakLength;
+        private final long rounds;
+        private final long ties;
+        private final long faces;
+        private final long faceSquares;
+        private Snapshot(GameStatistics stats) {
+            this.playerCount = stats.playerCount;
+            this.sides = stats.sides;
+            this.maxRoll = stats.maxRoll;
+            this.rollCounts = stats.rollCounts.clone();
+            this.faceCounts = stats.faceCounts.clone();
+            this.longestStreak = stats.longestStreak.clone();
+            this.streakHolder = stats.streakHolder;
+            this.streakLength = stats.streakLength;
+            this.rounds = stats.rounds;
+            this.ties = stats.ties;
+            this.faces = stats.faces;
+            this.faceSquares = stats.faceSquares;
+        }
+        private Snapshot(DataInput in) throws IOException {
+            this.playerCount = in.readInt();
+            this.sides = in.readInt();
+            this.maxRoll = in.readInt();
+            if (playerCount < 0 || sides < 0 || maxRoll < 0) {
+                throw new IOException("Corrupt statistics");
+            }
+            this.rollCounts = new long[playerCount * (maxRoll + 1)];
+            for (int i = 0; i < rollCounts.length; i++) {
+                rollCounts[i] = in.readLong();
+            }
+            this.faceCounts = new long[sides + 1];
+            for (int i = 0; i < faceCounts.length; i++) {
+                faceCounts[i] = in.readLong();
+            }
+            this.longestStreak = new int[playerCount];
+            for (int i = 0; i < longestStreak.length; i++) {
+                longestStreak[i] = in.readInt();
+            }
+            this.streakHolder = in.readInt();
+            this.streakLength = in.readInt();
+            this.rounds = in.readLong();
+            this.ties = in.readLong();
+            this.faces = in.readLong();
+            this.faceSquares = in.readLong();
+        }
+        public void write(DataOutput out) throws IOException {
+            out.writeInt(playerCount);
+            out.writeInt(sides);
+            out.writeInt(maxRoll);
+            for (long count : rollCounts) {
+                out.writeLong(count);
+            }
+            for (long count : faceCounts) {
+                out.writeLong(count);
+            }
+            for (int streak : longestStreak) {
+                out.writeInt(streak);
+            }
+            out.writeInt(streakHolder);
+            out.writeInt(streakLength);
+            out.writeLong(rounds);
+            out.writeLong(ties);
+            out.writeLong(faces);
+            out.writeLong(faceSquares);
+        }
+        public static Snapshot read(DataInput in) throws IOException {
+            return new Snapshot(in);
+        }
+        public long getRounds() { return rounds; }
+        public long getTies() { return ties; }
+        public double getTieRate() { return rounds == 0 ? 0 : (double) ties / rounds; }
+        public long getRollCount(int playerIndex, int roll) { return rollCounts[playerIndex * (maxRoll + 1) + roll]; }
+        public long[] getRollHistogram(int playerIndex) {
+            return Arrays.copyOfRange(rollCounts, playerIndex * (maxRoll + 1), (playerIndex + 1) * (maxRoll + 1));
+        }
+        public long getFaceCount(int face) { return faceCounts[face]; }
+        public int getCurrentStreak(int playerIndex) { return playerIndex == streakHolder ? streakLength : 0; }
+        public int getLongestStreak(int playerIndex) { return longestStreak[playerIndex]; }
+        // Pearson chi-square of the die faces against a uniform die, sides - 1 degrees of freedom.
+        public double getChiSquare() {
+            return faces == 0 ? 0 : (double) sides * faceSquares / faces - faces;
+        }
+        public int getDegreesOfFreedom() { return sides - 1; }
+        public String describe(List<Player> players) {
+            StringBuilder sb = new StringBuilder();
+            sb.append(String.format(Locale.ROOT, "Rounds: %d, ties: %d (%.2f%%)%n", rounds, ties, getTieRate() * 100));
+            for (int i = 0; i < playerCount; i++) {
+                sb.append(players.get(i).showName()).append(": current streak ").append(getCurrentStreak(i))
+                        .append(", longest streak ").append(longestStreak[i]).append('\n');
+            }
+            sb.append(String.format(Locale.ROOT, "Dice fairness: chi-square %.3f over %d faces (%d degrees of freedom)",
+                    getChiSquare(), faces, getDegreesOfFreedom()));
+            return sb.toString();
+        }
+    }
+}
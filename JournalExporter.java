@@ -0,0 +1,68 @@
+import java.io.BufferedWriter;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.Writer;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+public class JournalExporter {
+    public static void exportText(String journalPath, String textPath) throws IOException {
+        try (RoundJournal.Reader reader = new RoundJournal.Reader(journalPath);
+             Writer writer = new BufferedWriter(new FileWriter(textPath))) {
+            String[] names = reader.getNames();
+            ArrayList<Player> players = new ArrayList<>();
+            for (String name : names) {
+                players.add(new Player(name));
+            }
+            RoundHistory formatter = new RoundHistory(players, 0);
+            writeHeader(writer, names.length, countRounds(journalPath));
+            writer.write("\n");
+            while (reader.next()) {
+                int winnerIndex = reader.getWinnerIndex();
+                if (winnerIndex >= 0) {
+                    players.get(winnerIndex).incrementWin();
+                }
+                writer.write(formatter.formatRound(reader.getRoundNumber(), reader.getRolls(), winnerIndex));
+                writer.write('\n');
+            }
+            writeResults(writer, players);
+        }
+    }
+    // Shared with GameEngine.saveGameToFile so a report looks the same with or without a journal.
+    static void writeHeader(Writer writer, int playerCount, long rounds) throws IOException {
+        writer.write("=== Dice Game Results ===\n");
+        writer.write("Date: " + LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss")) + "\n");
+        writer.write("Players: " + playerCount + "\n");
+        writer.write("Rounds: " + rounds + "\n");
+    }
+    static void writeResults(Writer writer, List<Player> players) throws IOException {
+        writer.write("\nFinal Results:\n");
+        for (Player player : players) {
+            writer.write(player.showName() + ": " + player.showWins() + " wins\n");
+        }
+        writer.write("\n" + "=".repeat(50) + "\n\n");
+    }
+    private static long countRounds(String journalPath) throws IOException {
+        long rounds = 0;
+        try (RoundJournal.Reader reader = new RoundJournal.Reader(journalPath)) {
+            while (reader.next()) {
+                rounds++;
+            }
+        }
+        return rounds;
+    }
+    public static void main(String[] args) {
+        if (args.length != 2) {
+            System.err.println("Usage: java JournalExporter <journal file> <text report>");
+            System.exit(1);
+        }
+        try {
+            exportText(args[0], args[1]);
+            System.out.println("Exported " + args[0] + " to " + args[1]);
+        } catch (IOException e) {
+            System.err.println("Error exporting journal: " + e.getMessage());
+            System.exit(1);
+        }
+    }
+}
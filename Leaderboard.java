@@ -0,0 +1,106 @@
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+// Players kept in descending win order, updated in O(1) per win. above[w] is the number of players
+// with more than w wins, which is also the first position of the w-win bucket; a win moves the player
+// to the front of their bucket and grows the bucket above it by one.
+public class Leaderboard {
+    private Player[] order;
+    private int[] above;
+    private boolean resetting;
+    public Leaderboard(List<Player> players) {
+        this.order = players.toArray(new Player[0]);
+        for (Player player : order) {
+            player.attachLeaderboard(this);
+        }
+        rebuild();
+    }
+    public void rebuild() {
+        Arrays.sort(order, (a, b) -> Integer.compare(b.showWins(), a.showWins()));
+        int maxWins = order.length == 0 ? 0 : order[0].showWins();
+        int[] counts = new int[maxWins + 2];
+        for (Player player : order) {
+            counts[player.showWins()]++;
+        }
+        above = new int[maxWins + 2];
+        for (int w = maxWins - 1; w >= 0; w--) {
+            above[w] = above[w + 1] + counts[w + 1];
+        }
+        for (int i = 0; i < order.length; i++) {
+            order[i].setBoardPosition(i);
+        }
+    }
+    void onWin(Player player, int previousWins) {
+        int position = player.getBoardPosition();
+        int front = above[previousWins];
+        Player displaced = order[front];
+        order[front] = player;
+        order[position] = displaced;
+        player.setBoardPosition(front);
+        displaced.setBoardPosition(position);
+        above[previousWins]++;
+        if (previousWins + 1 >= above.length) {
+            above = Arrays.copyOf(above, above.length * 2);
+        }
+    }
+    void onReset(Player player, int previousWins) {
+        if (resetting) return;
+        sink(player, previousWins);
+    }
+    // Takes a player that joined another board off this one; the others keep a valid order. O(wins).
+    void remove(Player player) {
+        sink(player, player.showWins());
+        int last = order.length - 1;
+        int position = player.getBoardPosition();
+        Player displaced = order[last];
+        order[position] = displaced;
+        displaced.setBoardPosition(position);
+        order = Arrays.copyOf(order, last);
+    }
+    // Moves the player down one bucket at a time: to the back of bucket w, which then becomes the
+    // front of bucket w - 1. Ends in the 0-win bucket, which runs to the end of the array. O(wins).
+    private void sink(Player player, int wins) {
+        for (int w = wins; w > 0; w--) {
+            int position = player.getBoardPosition();
+            int back = above[w - 1] - 1;
+            Player displaced = order[back];
+            order[back] = player;
+            order[position] = displaced;
+            player.setBoardPosition(back);
+            displaced.setBoardPosition(position);
+            above[w - 1]--;
+        }
+    }
+    // Zeroes every player's wins in O(n); with everyone level, the current order is already valid.
+    public void resetAll() {
+        resetting = true;
+        try {
+            for (Player player : order) {
+                player.resetWins();
+            }
+        } finally {
+            resetting = false;
+        }
+        Arrays.fill(above, 0);
+    }
+    // Standard competition ranking: players on equal wins share a rank.
+    public int rankOf(Player player) {
+        return above[player.showWins()] + 1;
+    }
+    public int size() {
+        return order.length;
+    }
+    public Player atPosition(int position) {
+        return order[position];
+    }
+    public List<Player> top(int k) {
+        int end = Math.min(Math.max(k, 0), order.length);
+        return new ArrayList<>(Arrays.asList(order).subList(0, end));
+    }
+    public List<Player> around(Player player, int radius) {
+        int position = player.getBoardPosition();
+        int from = Math.max(0, position - radius);
+        int to = Math.min(order.length, position + radius + 1);
+        return new ArrayList<>(Arrays.asList(order).subList(from, to));
+    }
+}
@@ -0,0 +1,249 @@
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+public class MassRoundEngine {
+    // Players are rolled and scanned in fixed segments, each with its own random stream,
+    // so a seeded run gives the same rounds whether segments run sequentially or in parallel.
+    static final int SEGMENT_SIZE = 1 << 14;
+    private String[] names;
+    private int[] rolls;
+    private int[] wins;
+    // Player objects are only built when someone asks for them; from then on they are kept in step
+    // with wins, so results hand out the same instances every round.
+    private ArrayList<Player> players;
+    private int dicePerPlayer;
+    private Dice[] segmentDice;
+    private int[][] segmentFaces;
+    private int[] segmentHigh;
+    private int[] segmentCount;
+    private int[] segmentFirst;
+    private ForkJoinPool pool;
+    private int roundNumber;
+    private int highestRoll;
+    private int highCount;
+    private int firstHighIndex;
+    public MassRoundEngine(String[] names, long seed) {
+        this(names, Dice.DEFAULT_SIDES, 1, seed, null);
+    }
+    public MassRoundEngine(String[] names, int sides, int dicePerPlayer, long seed, ForkJoinPool pool) {
+        if (dicePerPlayer < 1) {
+            throw new IllegalArgumentException("Each player needs at least one die: " + dicePerPlayer);
+        }
+        this.names = names.clone();
+        this.rolls = new int[names.length];
+        this.wins = new int[names.length];
+        this.dicePerPlayer = dicePerPlayer;
+        this.pool = pool;
+        int segments = (names.length + SEGMENT_SIZE - 1) / SEGMENT_SIZE;
+        this.segmentDice = new Dice[segments];
+        this.segmentFaces = new int[segments][];
+        this.segmentHigh = new int[segments];
+        this.segmentCount = new int[segments];
+        this.segmentFirst = new int[segments];
+        SplittableRandom master = new SplittableRandom(seed);
+        for (int s = 0; s < segments; s++) {
+            segmentDice[s] = new Dice(master.split(), sides);
+            if (dicePerPlayer > 1) {
+                segmentFaces[s] = new int[SEGMENT_SIZE * dicePerPlayer];
+            }
+        }
+        this.roundNumber = 0;
+    }
+    public static MassRoundEngine fromPlayers(List<Player> players, long seed) {
+        String[] names = new String[players.size()];
+        for (int i = 0; i < names.length; i++) {
+            names[i] = players.get(i).showName();
+        }
+        MassRoundEngine engine = new MassRoundEngine(names, seed);
+        for (int i = 0; i < names.length; i++) {
+            engine.wins[i] = players.get(i).showWins();
+        }
+        engine.players = new ArrayList<>(players);
+        return engine;
+    }
+    public RoundView playRound() {
+        roundNumber++;
+        int segments = segmentDice.length;
+        if (pool != null && segments > 1) {
+            pool.invoke(new SegmentTask(0, segments));
+        } else {
+            for (int s = 0; s < segments; s++) {
+                rollSegment(s);
+            }
+        }
+        int high = 0;
+        int count = 0;
+        int first = -1;
+        for (int s = 0; s < segments; s++) {
+            if (segmentHigh[s] > high) {
+                high = segmentHigh[s];
+                count = segmentCount[s];
+                first = segmentFirst[s];
+            } else if (segmentHigh[s] == high) {
+                count += segmentCount[s];
+            }
+        }
+        highestRoll = high;
+        highCount = count;
+        firstHighIndex = first;
+        if (count == 1) {
+            wins[first]++;
+            if (players != null) {
+                players.get(first).incrementWin();
+            }
+        }
+        return new RoundView(this, roundNumber, high, count == 1 ? first : -1);
+    }
+    private void rollSegment(int segment) {
+        int from = segment * SEGMENT_SIZE;
+        int to = Math.min(from + SEGMENT_SIZE, rolls.length);
+        Dice dice = segmentDice[segment];
+        if (dicePerPlayer == 1) {
+            dice.rollInto(rolls, from, to - from);
+        } else {
+            int[] faces = segmentFaces[segment];
+            dice.rollInto(faces, 0, (to - from) * dicePerPlayer);
+            int face = 0;
+            for (int i = from; i < to; i++) {
+                int roll = faces[face++];
+                for (int d = 1; d < dicePerPlayer; d++) {
+                    roll += faces[face++];
+                }
+                rolls[i] = roll;
+            }
+        }
+        int high = 0;
+        int count = 0;
+        int first = -1;
+        for (int i = from; i < to; i++) {
+            int roll = rolls[i];
+            if (roll > high) {
+                high = roll;
+                count = 1;
+                first = i;
+            } else if (roll == high) {
+                count++;
+            }
+        }
+        segmentHigh[segment] = high;
+        segmentCount[segment] = count;
+        segmentFirst[segment] = first;
+    }
+    public int getRoundNumber() {
+        return roundNumber;
+    }
+    public int getPlayerCount() {
+        return names.length;
+    }
+    public String getName(int playerIndex) {
+        return names[playerIndex];
+    }
+    public int getRoll(int playerIndex) {
+        return rolls[playerIndex];
+    }
+    public ArrayList<Player> getPlayers() {
+        if (players == null) {
+            players = new ArrayList<>(names.length);
+            for (int i = 0; i < names.length; i++) {
+                players.add(new Player(names[i], wins[i]));
+            }
+        }
+        return players;
+    }
+    public int getWins(int playerIndex) {
+        return wins[playerIndex];
+    }
+    public int getHighestRoll() {
+        return highestRoll;
+    }
+    public int getTieCount() {
+        return highCount > 1 ? highCount : 0;
+    }
+    public int getWinnerIndex() {
+        return highCount == 1 ? firstHighIndex : -1;
+    }
+    public int[] getTiedPlayerIndices() {
+        if (highCount < 2) {
+            return new int[0];
+        }
+        int[] tied = new int[highCount];
+        int n = 0;
+        for (int i = firstHighIndex; i < rolls.length && n < tied.length; i++) {
+            if (rolls[i] == highestRoll) {
+                tied[n++] = i;
+            }
+        }
+        return tied;
+    }
+    public void resetGame() {
+        Arrays.fill(wins, 0);
+        if (players != null) {
+            for (Player player : players) {
+                player.resetWins();
+            }
+        }
+        roundNumber = 0;
+    }
+    private class SegmentTask extends RecursiveAction {
+        private final int from;
+        private final int to;
+        SegmentTask(int from, int to) {
+            this.from = from;
+            this.to = to;
+        }
+        @Override
+        protected void compute() {
+            if (to - from == 1) {
+                rollSegment(from);
+                return;
+            }
+            int mid = (from + to) >>> 1;
+            invokeAll(new SegmentTask(from, mid), new SegmentTask(mid, to));
+        }
+    }
+    // A GameResult over the engine's arrays, valid until the next playRound. The roll list is only
+    // materialized when a caller such as the GUI or the server encoder asks for it. getPlayers and
+    // getWinner return the engine's own Player objects (the ones passed to fromPlayers), so their win
+    // counts are live rather than frozen at this round.
+    public static class RoundView extends GameEngine.GameResult {
+        private final MassRoundEngine engine;
+        private ArrayList<Integer> rolls;
+        private final int winnerIndex;
+        RoundView(MassRoundEngine engine, int roundNumber, int winningRoll, int winnerIndex) {
+            super(roundNumber, winningRoll);
+            this.engine = engine;
+            this.winnerIndex = winnerIndex;
+        }
+        private void checkCurrent() {
+            if (engine.roundNumber != getRoundNumber()) {
+                throw new IllegalStateException("Round " + getRoundNumber() + " has been superseded by round " + engine.roundNumber);
+            }
+        }
+        @Override
+        public ArrayList<Player> getPlayers() {
+            return engine.getPlayers();
+        }
+        @Override
+        public ArrayList<Integer> getRolls() {
+            if (rolls == null) {
+                checkCurrent();
+                rolls = new ArrayList<>(engine.rolls.length);
+                for (int roll : engine.rolls) {
+                    rolls.add(roll);
+                }
+            }
+            return rolls;
+        }
+        @Override
+        public Player getWinner() {
+            return winnerIndex < 0 ? null : getPlayers().get(winnerIndex);
+        }
+        @Override
+        public int getWinnerIndex() {
+            return winnerIndex;
+        }
+    }
+}
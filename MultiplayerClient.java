@@ -2,8 +2,11 @@ import javax.swing.*;
 import java.awt.*;
 import java.io.*;
 import java.net.*;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
 import java.util.HashMap;
-import java.util.Map;
+import java.util.Locale;
 import java.util.Map;
 public class MultiplayerClient extends JFrame {
     private String host;
@@ -11,17 +14,21 @@ public class MultiplayerClient extends JFrame {
     private String playerName;
     private Socket socket;
     private PrintWriter out;
-    private BufferedReader in;
+    private WireProtocol.Reader in;
     private boolean connected;
+    // Owned by the listener thread.
+    private boolean binary;
+    private WireProtocol.Roster roster;
     private JPanel playersPanel;
     private JButton rollDiceButton;
     private JButton startGameButton;
     private JTextArea gameLogArea;
     private JScrollPane logScrollPane;
     private JLabel statusLabel;
-    private Map<String, JLabel> playerLabels;
-    private Map<String, JLabel> diceLabels;
-    private Map<String, JLabel> winsLabels;
+    // Keyed by player ID, the player's index in the roster.
+    private Map<Integer, JLabel> playerLabels;
+    private Map<Integer, JLabel> diceLabels;
+    private Map<Integer, JLabel> winsLabels;
     public MultiplayerClient(String host, int port, String playerName) {
         this.host = host;
         this.port = port;
@@ -51,18 +58,37 @@ public class MultiplayerClient extends JFrame {
         statusLabel.setForeground(Color.RED);
         startGameButton = new JButton("Start Game");
         rollDiceButton = new JButton("Roll Dice");
+        JButton standingsButton = new JButton("Standings");
+        JButton createRoomButton = new JButton("Create Room");
+        JButton joinRoomButton = new JButton("Join Room");
         JButton disconnectButton = new JButton("Disconnect");
         startGameButton.setEnabled(false);
         rollDiceButton.setEnabled(false);
         startGameButton.addActionListener(e -> sendMessage("START_GAME"));
         rollDiceButton.addActionListener(e -> sendMessage("ROLL_DICE"));
+        standingsButton.addActionListener(e -> {
+            sendMessage("GET_TOP:5");
+            sendMessage("GET_RANK");
+        });
+        createRoomButton.addActionListener(e -> askRoom("CREATE_ROOM"));
+        joinRoomButton.addActionListener(e -> askRoom("JOIN_ROOM"));
         disconnectButton.addActionListener(e -> disconnect());
         controlPanel.add(statusLabel);
         controlPanel.add(startGameButton);
         controlPanel.add(rollDiceButton);
+        controlPanel.add(standingsButton);
+        controlPanel.add(createRoomButton);
+        controlPanel.add(joinRoomButton);
         controlPanel.add(disconnectButton);
         return controlPanel;
     }
+    private void askRoom(String command) {
+        String roomId = JOptionPane.showInputDialog(this, "Room id:", command.equals("CREATE_ROOM") ? "Create Room" : "Join Room",
+                JOptionPane.QUESTION_MESSAGE);
+        if (roomId != null && !roomId.trim().isEmpty()) {
+            sendMessage(command + ":" + roomId.trim());
+        }
+    }
     private void createGamePanel() {
         playersPanel = new JPanel();
         playersPanel.setLayout(new GridLayout(1, 1));
@@ -78,11 +104,15 @@ public class MultiplayerClient extends JFrame {
     public void connect() throws IOException {
         socket = new Socket(host, port);
         out = new PrintWriter(socket.getOutputStream(), true);
-        in = new BufferedReader(new InputStreamReader(socket.getInputStream()));
+        in = new WireProtocol.Reader(new BufferedInputStream(socket.getInputStream()));
         connected = true;
         statusLabel.setText("Connected to " + host + ":" + port);
         statusLabel.setForeground(Color.GREEN);
         sendMessage("SET_NAME:" + playerName);
+        // Servers that do not know these never echo them back, so the client stays on full text lines.
+        sendMessage(WireProtocol.NEGOTIATE_HEARTBEAT);
+        sendMessage(WireProtocol.NEGOTIATE_DELTA);
+        sendMessage(WireProtocol.NEGOTIATE);
         Thread messageListener = new Thread(this::listenForMessages);
         messageListener.start();
         gameLogArea.append("Connected to server as " + playerName + "\n");
@@ -90,9 +120,20 @@ public class MultiplayerClient extends JFrame {
     }
     private void listenForMessages() {
         try {
-            String message;
-            while (connected && (message = in.readLine()) != null) {
-                processServerMessage(message);
+            while (connected) {
+                if (binary) {
+                    ByteBuffer frame = in.readFrame();
+                    if (frame == null) break;
+                    processFrame(frame);
+                } else {
+                    String message = in.readLine();
+                    if (message == null) break;
+                    if (message.equals(WireProtocol.NEGOTIATE)) {
+                        binary = true;
+                    } else {
+                        dispatchLine(message);
+                    }
+                }
             }
         } catch (IOException e) {
             if (connected) {
@@ -111,6 +152,15 @@ public class MultiplayerClient extends JFrame {
                 case "NAME_SET":
                     gameLogArea.append("Player name set to: " + parts[1] + "\n");
                     break;
+                case "ROOM_JOINED":
+                    gameLogArea.append("Joined room " + parts[1] + "\n");
+                    setTitle("Dice Game - Multiplayer Client (" + playerName + ") - room " + parts[1]);
+                    startGameButton.setEnabled(false);
+                    rollDiceButton.setEnabled(false);
+                    break;
+                case "ROOM_LEFT":
+                    gameLogArea.append("Left room " + parts[1] + "\n");
+                    break;
                 case "PLAYER_COUNT":
                     int count = Integer.parseInt(parts[1]);
                     gameLogArea.append("Players connected: " + count + "\n");
@@ -127,24 +177,109 @@ public class MultiplayerClient extends JFrame {
                 case "ROUND_RESULT":
                     processRoundResult(parts[1]);
                     break;
+                case "ODDS":
+                    String[] odds = parts[1].split(";");
+                    gameLogArea.append(String.format(Locale.ROOT, "Odds for %s players: win %.2f%% each, tie %.2f%%, expected high roll %s%n",
+                            odds[0], Double.parseDouble(odds[1]) * 100, Double.parseDouble(odds[2]) * 100, odds[3]));
+                    break;
+                case "TOP":
+                case "AROUND":
+                    gameLogArea.append(command.equals("TOP") ? "Top players:\n" : "Players around you:\n");
+                    for (String entry : parts[1].split(",")) {
+                        String[] info = entry.split(":");
+                        if (info.length < 3) continue;
+                        gameLogArea.append("  #" + info[0] + " " + info[1] + " - " + info[2] + " wins\n");
+                    }
+                    break;
+                case "RANK":
+                    String[] rank = parts[1].split(":");
+                    gameLogArea.append("Your rank: " + rank[0] + " of " + rank[2] + " with " + rank[1] + " wins\n");
+                    break;
                 case "ERROR":
-                    gameLogArea.append("Error: " + parts[1] + "\n");
+                    gameLogArea.append(parts[1].equals("RATE_LIMITED") ? "Slow down: the server is ignoring commands sent too fast\n"
+                            : "Error: " + parts[1] + "\n");
+                    break;
+                case "METRICS":
+                    gameLogArea.append("Server metrics: " + parts[1].replace(";", ", ") + "\n");
                     break;
             }
             gameLogArea.setCaretPosition(gameLogArea.getDocument().getLength());
         });
     }
+    private void processFrame(ByteBuffer frame) throws IOException {
+        switch (frame.get()) {
+            case WireProtocol.OP_TEXT:
+                dispatchLine(new String(frame.array(), frame.arrayOffset() + frame.position(), frame.remaining(), StandardCharsets.UTF_8));
+                break;
+            case WireProtocol.OP_PLAYERS:
+                applyRoster(WireProtocol.decodePlayers(frame));
+                break;
+            case WireProtocol.OP_ROUND:
+                if (roster != null) {
+                    showRoundLater(decodeRoundFrame(frame, roster));
+                }
+                break;
+        }
+    }
+    // Heartbeats are answered and roster and deltas decoded here, on the listener thread that owns the
+    // roster; everything else is handled on the event thread.
+    private void dispatchLine(String message) {
+        try {
+            if (message.equals("PING")) {
+                sendMessage("PONG");
+            } else if (message.startsWith("ROSTER:")) {
+                applyRoster(parseRoster(message.substring("ROSTER:".length())));
+            } else if (message.startsWith("DELTA:")) {
+                if (roster != null) {
+                    showRoundLater(parseDelta(message.substring("DELTA:".length()), roster));
+                }
+            } else {
+                processServerMessage(message);
+            }
+        } catch (RuntimeException e) {
+            System.err.println("Ignoring malformed message: " + message);
+        }
+    }
+    // A roster with the same names is a keyframe and only refreshes the win counters.
+    private void applyRoster(WireProtocol.Roster update) {
+        boolean samePlayers = roster != null && Arrays.equals(roster.names, update.names);
+        roster = update;
+        String[] names = update.names;
+        int[] wins = update.wins.clone();
+        SwingUtilities.invokeLater(() -> {
+            if (samePlayers) {
+                updateWins(wins);
+            } else {
+                updatePlayersDisplay(names, wins);
+            }
+        });
+    }
+    private void showRoundLater(RoundResult result) {
+        SwingUtilities.invokeLater(() -> {
+            showRoundResult(result);
+            gameLogArea.setCaretPosition(gameLogArea.getDocument().getLength());
+        });
+    }
     private void updatePlayersDisplay(String playerData) {
+        String[] players = playerData.split(",");
+        String[] names = new String[players.length];
+        int[] wins = new int[players.length];
+        for (int i = 0; i < players.length; i++) {
+            String[] info = players[i].split(":");
+            names[i] = info[0];
+            wins[i] = info.length > 1 ? Integer.parseInt(info[1]) : 0;
+        }
+        updatePlayersDisplay(names, wins);
+    }
+    private void updatePlayersDisplay(String[] names, int[] playerWins) {
         playersPanel.removeAll();
         playerLabels.clear();
         diceLabels.clear();
         winsLabels.clear();
-        String[] players = playerData.split(",");
-        playersPanel.setLayout(new GridLayout(1, players.length, 10, 10));
-        for (String playerInfo : players) {
-            String[] info = playerInfo.split(":");
-            String name = info[0];
-            int wins = info.length > 1 ? Integer.parseInt(info[1]) : 0;
+        playersPanel.setLayout(new GridLayout(1, names.length, 10, 10));
+        for (int i = 0; i < names.length; i++) {
+            String name = names[i];
+            int wins = playerWins[i];
             JPanel playerPanel = new JPanel(new BorderLayout());
             playerPanel.setBorder(BorderFactory.createTitledBorder(name));
             JLabel nameLabel = new JLabel(name, JLabel.CENTER);
@@ -157,42 +292,134 @@ public class MultiplayerClient extends JFrame {
             playerPanel.add(diceLabel, BorderLayout.CENTER);
             playerPanel.add(winsLabel, BorderLayout.SOUTH);
             playersPanel.add(playerPanel);
-            playerLabels.put(name, nameLabel);
-            diceLabels.put(name, diceLabel);
-            winsLabels.put(name, winsLabel);
+            playerLabels.put(i, nameLabel);
+            diceLabels.put(i, diceLabel);
+            winsLabels.put(i, winsLabel);
         }
         playersPanel.revalidate();
         playersPanel.repaint();
     }
+    private void updateWins(int[] wins) {
+        for (int id = 0; id < wins.length; id++) {
+            JLabel winsLabel = winsLabels.get(id);
+            if (winsLabel != null) {
+                winsLabel.setText("Wins: " + wins[id]);
+            }
+        }
+    }
     private void processRoundResult(String resultData) {
-        String[] parts = resultData.split(";");
-        int roundNumber = Integer.parseInt(parts[0]);
-        String[] playerResults = parts[1].split(",");
+        showRoundResult(parseRoundResult(resultData));
+    }
+    private void showRoundResult(RoundResult result) {
         StringBuilder logEntry = new StringBuilder();
-        logEntry.append("Round ").append(roundNumber).append(": ");
-        for (String result : playerResults) {
-            String[] info = result.split(":");
-            String name = info[0];
-            int roll = Integer.parseInt(info[1]);
-            int wins = Integer.parseInt(info[2]);
-            if (diceLabels.containsKey(name)) {
-                diceLabels.get(name).setText(getDiceFace(roll));
-                winsLabels.get(name).setText("Wins: " + wins);
+        logEntry.append("Round ").append(result.roundNumber).append(": ");
+        for (int i = 0; i < result.names.length; i++) {
+            String name = result.names[i];
+            if (diceLabels.containsKey(i)) {
+                diceLabels.get(i).setText(getDiceFace(result.rolls[i]));
+                winsLabels.get(i).setText("Wins: " + result.wins[i]);
             }
-            logEntry.append(name).append(" rolled ").append(roll).append(", ");
+            logEntry.append(name).append(" rolled ").append(result.rolls[i]).append(", ");
+        }
+        if (result.tie) {
+            logEntry.append(" - Tie!");
+        } else if (result.winner != null) {
+            logEntry.append(" - Winner: ").append(result.winner);
+        }
+        gameLogArea.append(logEntry.toString() + "\n");
+    }
+    static RoundResult parseRoundResult(String resultData) {
+        String[] parts = resultData.split(";");
+        RoundResult result = new RoundResult();
+        result.roundNumber = Integer.parseInt(parts[0]);
+        String[] playerResults = parts[1].split(",");
+        result.names = new String[playerResults.length];
+        result.rolls = new int[playerResults.length];
+        result.wins = new int[playerResults.length];
+        for (int i = 0; i < playerResults.length; i++) {
+            String[] info = playerResults[i].split(":");
+            result.names[i] = info[0];
+            result.rolls[i] = Integer.parseInt(info[1]);
+            result.wins[i] = Integer.parseInt(info[2]);
         }
         if (parts.length > 2) {
             if (parts[2].equals("TIE")) {
-                logEntry.append(" - Tie!");
+                result.tie = true;
             } else if (parts[2].startsWith("WINNER:")) {
-                String winner = parts[2].substring(7); // Remove "WINNER:" prefix
-                logEntry.append(" - Winner: ").append(winner);
+                result.winner = parts[2].substring(7); // Remove "WINNER:" prefix
             }
         }
-        gameLogArea.append(logEntry.toString() + "\n");
+        return result;
+    }
+    // Parses a ROSTER payload: id:escaped name:wins for every player, comma-separated.
+    static WireProtocol.Roster parseRoster(String rosterData) {
+        String[] entries = rosterData.isEmpty() ? new String[0] : rosterData.split(",");
+        WireProtocol.Roster roster = new WireProtocol.Roster(entries.length);
+        for (String entry : entries) {
+            String[] info = entry.split(":");
+            int id = Integer.parseInt(info[0]);
+            roster.names[id] = WireProtocol.unescape(info[1]);
+            roster.wins[id] = Integer.parseInt(info[2]);
+        }
+        return roster;
+    }
+    // Applies a DELTA payload to the roster: rolls come in ID order and only the winner's count changes.
+    static RoundResult parseDelta(String deltaData, WireProtocol.Roster roster) {
+        String[] parts = deltaData.split(";");
+        RoundResult result = new RoundResult();
+        result.roundNumber = Integer.parseInt(parts[0]);
+        String[] rolls = parts[1].split(",");
+        int count = Math.min(rolls.length, roster.names.length);
+        result.rolls = new int[count];
+        for (int i = 0; i < count; i++) {
+            result.rolls[i] = Integer.parseInt(rolls[i]);
+        }
+        if (parts[2].equals("TIE")) {
+            result.tie = true;
+        } else {
+            String[] winner = parts[2].split(":");
+            int id = Integer.parseInt(winner[0]);
+            roster.wins[id] = Integer.parseInt(winner[1]);
+            result.winner = roster.names[id];
+        }
+        result.names = count == roster.names.length ? roster.names : Arrays.copyOf(roster.names, count);
+        result.wins = roster.wins.clone();
+        return result;
+    }
+    // Decodes a ROUND body (after the opcode) against the current roster and updates its wins.
+    static RoundResult decodeRoundFrame(ByteBuffer body, WireProtocol.Roster roster) throws IOException {
+        RoundResult result = new RoundResult();
+        result.roundNumber = RoundJournal.getVarint(body);
+        int winnerIndex = RoundJournal.getVarint(body) - 1;
+        if (winnerIndex >= roster.names.length) {
+            throw new IOException("Winner " + winnerIndex + " is not in the roster");
+        }
+        if (winnerIndex >= 0) {
+            roster.wins[winnerIndex] = RoundJournal.getVarint(body);
+            result.winner = roster.names[winnerIndex];
+        } else {
+            result.tie = true;
+        }
+        int count = Math.min(roster.names.length, body.remaining());
+        result.names = count == roster.names.length ? roster.names : Arrays.copyOf(roster.names, count);
+        result.wins = roster.wins.clone();
+        result.rolls = new int[count];
+        for (int i = 0; i < count; i++) {
+            result.rolls[i] = body.get() & 0xFF;
+        }
+        return result;
+    }
+    static class RoundResult {
+        int roundNumber;
+        String[] names;
+        int[] rolls;
+        int[] wins;
+        String winner;
+        boolean tie;
     }
     private String getDiceFace(int roll) {
         String[] diceFaces = {"⚀", "⚁", "⚂", "⚃", "⚄", "⚅"};
+        if (roll < 1 || roll > diceFaces.length) return String.valueOf(roll);
         return diceFaces[roll - 1];
     }
     private void sendMessage(String message) {
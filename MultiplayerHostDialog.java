@@ -5,6 +5,8 @@ import java.awt.event.ActionListener;
 import java.awt.event.ActionListener;
 public class MultiplayerHostDialog extends JDialog {
     private JTextField portField;
+    private JComboBox<Dice.Rng> rngBox;
+    private JComboBox<MultiplayerServer.IoMode> ioModeBox;
     private JButton startButton;
     private JButton cancelButton;
     private DiceGameGUI parent;
@@ -14,7 +16,7 @@ public class MultiplayerHostDialog extends JDialog {
         initializeUI();
     }
     private void initializeUI() {
-        setSize(300, 150);
+        setSize(360, 220);
         setLocationRelativeTo(parent);
         setLayout(new GridBagLayout());
         GridBagConstraints gbc = new GridBagConstraints();
@@ -24,6 +26,16 @@ public class MultiplayerHostDialog extends JDialog {
         gbc.gridx = 1;
         portField = new JTextField("12345", 10);
         add(portField, gbc);
+        gbc.gridx = 0; gbc.gridy = 1;
+        add(new JLabel("Dice RNG:"), gbc);
+        gbc.gridx = 1;
+        rngBox = new JComboBox<>(Dice.Rng.values());
+        add(rngBox, gbc);
+        gbc.gridx = 0; gbc.gridy = 2;
+        add(new JLabel("Server I/O:"), gbc);
+        gbc.gridx = 1;
+        ioModeBox = new JComboBox<>(MultiplayerServer.IoMode.values());
+        add(ioModeBox, gbc);
         JPanel buttonPanel = new JPanel(new FlowLayout());
         startButton = new JButton("Start Server");
         cancelButton = new JButton("Cancel");
@@ -41,7 +53,7 @@ public class MultiplayerHostDialog extends JDialog {
         });
         buttonPanel.add(startButton);
         buttonPanel.add(cancelButton);
-        gbc.gridx = 0; gbc.gridy = 1;
+        gbc.gridx = 0; gbc.gridy = 3;
         gbc.gridwidth = 2;
         add(buttonPanel, gbc);
     }
@@ -52,7 +64,8 @@ public class MultiplayerHostDialog extends JDialog {
                 JOptionPane.showMessageDialog(this, "Port must be between 1024 and 65535!", "Invalid Port", JOptionPane.ERROR_MESSAGE);
                 return;
             }
-            MultiplayerServer server = new MultiplayerServer(port);
+            MultiplayerServer server = new MultiplayerServer(port, (Dice.Rng) rngBox.getSelectedItem(),
+                    (MultiplayerServer.IoMode) ioModeBox.getSelectedItem());
             server.start();
             JOptionPane.showMessageDialog(this, "Server started on port " + port + "\nWaiting for players...", "Server Started", JOptionPane.INFORMATION_MESSAGE);
             dispose();
@@ -1,35 +1,125 @@
 import java.io.*;
 import java.net.*;
+import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
 
 public class MultiplayerServer {
+    private static final String JOURNAL_FILE = "server_game.journal";
+    private static final String SNAPSHOT_FILE = "server_game.snapshot";
+    public static final String DEFAULT_ROOM = "main";
+    private static final int MAX_ROOM_ID_LENGTH = 32;
+    public static final long DEFAULT_HEARTBEAT_MILLIS = 15_000;
+    public static final long DEFAULT_IDLE_TIMEOUT_MILLIS = 45_000;
+    // Departed clients are dropped from the list in batches this far apart, so a wave of disconnects
+    // costs a few array copies instead of one each.
+    private static final long REMOVAL_BATCH_MILLIS = 50;
     private int port;
     private ServerSocket serverSocket;
-    private List<ClientHandler> clients;
-    private GameEngine gameEngine;
-    private boolean gameStarted;
+    private NioServer nioServer;
+    private List<ClientConnection> clients;
+    private Set<ClientConnection> departed;
+    private AtomicBoolean removalScheduled = new AtomicBoolean();
+    private AtomicInteger liveClients = new AtomicInteger();
+    private ScheduledExecutorService reaper;
+    private Thread shutdownHook;
+    private long heartbeatMillis = DEFAULT_HEARTBEAT_MILLIS;
+    private long idleTimeoutMillis = DEFAULT_IDLE_TIMEOUT_MILLIS;
+    private int readTimeoutMillis = (int) DEFAULT_IDLE_TIMEOUT_MILLIS;
+    private Map<String, GameRoom> rooms;
+    private ScheduledExecutorService[] shards;
+    private GameRoom defaultRoom;
     private boolean running;
+    private Dice.Rng rng;
+    private IoMode ioMode;
+    private ThreadFactory threadFactory;
+    private ExecutorService writers;
+    private OutboundQueue.SlowConsumerPolicy slowConsumerPolicy = OutboundQueue.SlowConsumerPolicy.COALESCE;
+    private int outboundCapacity = OutboundQueue.DEFAULT_CAPACITY;
+    private int eventLoops = 1;
+    private FloodControl floodControl = new FloodControl();
+    public enum IoMode {
+        BLOCKING("Thread per client"),
+        VIRTUAL_THREADS("Virtual thread per client"),
+        NIO("Non-blocking selector");
+        private final String label;
+        IoMode(String label) {
+            this.label = label;
+        }
+        @Override
+        public String toString() {
+            return label;
+        }
+    }
     public MultiplayerServer(int port) {
+        this(port, Dice.Rng.RANDOM);
+    }
+    public MultiplayerServer(int port, Dice.Rng rng) {
+        this(port, rng, IoMode.BLOCKING);
+    }
+    public MultiplayerServer(int port, Dice.Rng rng, IoMode ioMode) {
+        this(port, rng, ioMode, Runtime.getRuntime().availableProcessors());
+    }
+    public MultiplayerServer(int port, Dice.Rng rng, IoMode ioMode, int roomShards) {
+        if (roomShards < 1) {
+            throw new IllegalArgumentException("Need at least one room shard");
+        }
         this.port = port;
+        this.rng = rng;
+        this.ioMode = ioMode;
+        this.threadFactory = ioMode == IoMode.VIRTUAL_THREADS ? Threads.factory("client-", true) : Thread::new;
         this.clients = new CopyOnWriteArrayList<>();
-        this.gameStarted = false;
+        this.departed = ConcurrentHashMap.newKeySet();
+        this.rooms = new ConcurrentHashMap<>();
+        this.shards = new ScheduledExecutorService[roomShards];
+        for (int i = 0; i < roomShards; i++) {
+            shards[i] = Executors.newSingleThreadScheduledExecutor(Threads.factory("room-shard-" + i + "-", false));
+        }
+        this.defaultRoom = new GameRoom(DEFAULT_ROOM, shardFor(DEFAULT_ROOM), rng, JOURNAL_FILE, SNAPSHOT_FILE, floodControl);
+        rooms.put(DEFAULT_ROOM, defaultRoom);
         this.running = false;
     }
     public void start() throws IOException {
-        serverSocket = new ServerSocket(port);
+        defaultRoom.execute(defaultRoom::resume);
         running = true;
-        System.out.println("Server started on port " + port);
-        Thread acceptThread = new Thread(() -> {
+        // Room journals buffer rounds, so a JVM exit without stop() would lose the unflushed tail.
+        shutdownHook = new Thread(this::stop, "server-shutdown");
+        Runtime.getRuntime().addShutdownHook(shutdownHook);
+        reaper = Executors.newSingleThreadScheduledExecutor(Threads.factory("client-reaper-", false));
+        if (heartbeatMillis > 0) {
+            reaper.scheduleWithFixedDelay(this::checkHeartbeats, heartbeatMillis, heartbeatMillis, TimeUnit.MILLISECONDS);
+        }
+        if (ioMode == IoMode.NIO) {
+            nioServer = new NioServer(this, port, eventLoops);
+            nioServer.start();
+            System.out.println("Server started on port " + port + " (non-blocking)");
+            return;
+        }
+        writers = ioMode == IoMode.VIRTUAL_THREADS ? Threads.perTaskExecutor("client-writer-", true)
+                : Executors.newCachedThreadPool(Threads.factory("client-writer-", false));
+        serverSocket = new ServerSocket(port);
+        System.out.println("Server started on port " + port + (ioMode == IoMode.VIRTUAL_THREADS
+                && Threads.virtualThreadsAvailable() ? " (virtual threads)" : ""));
+        Thread acceptThread = threadFactory.newThread(() -> {
             while (running) {
                 try {
                     Socket clientSocket = serverSocket.accept();
                     ClientHandler clientHandler = new ClientHandler(clientSocket, this);
-                    clients.add(clientHandler);
-                    clientHandler.start();
-                    System.out.println("Client connected. Total clients: " + clients.size());
-                    broadcastMessage("PLAYER_COUNT:" + clients.size());
+                    addClient(clientHandler);
+                    threadFactory.newThread(clientHandler).start();
                 } catch (IOException e) {
                     if (running) {
                         System.err.println("Error accepting client: " + e.getMessage());
@@ -41,42 +131,121 @@ public class MultiplayerServer {
     }
     public void stop() {
         running = false;
+        if (nioServer != null) {
+            nioServer.stop();
+        }
         try {
             if (serverSocket != null && !serverSocket.isClosed()) {
                 serverSocket.close();
             }
-            for (ClientHandler client : clients) {
+            for (ClientConnection client : clients) {
                 client.disconnect();
             }
         } catch (IOException e) {
             System.err.println("Error stopping server: " + e.getMessage());
         }
+        for (GameRoom room : rooms.values()) {
+            room.execute(room::close);
+        }
+        for (ExecutorService shard : shards) {
+            shard.shutdown();
+        }
+        try {
+            for (ExecutorService shard : shards) {
+                shard.awaitTermination(2, TimeUnit.SECONDS);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        if (shutdownHook != null && Thread.currentThread() != shutdownHook) {
+            try {
+                Runtime.getRuntime().removeShutdownHook(shutdownHook);
+            } catch (IllegalStateException e) {
+                // Already shutting down; the hook is running or about to.
+            }
+        }
+        if (writers != null) {
+            writers.shutdown();
+        }
+        if (reaper != null) {
+            reaper.shutdown();
+        }
     }
-    public void broadcastMessage(String message) {
-        for (ClientHandler client : clients) {
-            client.sendMessage(message);
+    // Call before start. Only clients that sent PROTOCOL:HB1 take part, since older ones never answer
+    // a PING and may legitimately sit silent: those quiet for heartbeatMillis get a PING, and those
+    // that stay silent for idleTimeoutMillis are evicted; heartbeatMillis 0 turns both off.
+    // readTimeoutMillis bounds their blocking socket reads (0 waits forever); NIO connections rely on
+    // the idle check alone. Every socket has TCP keepalive on, which is what catches dead peers among
+    // the other clients.
+    public void setTimeouts(long heartbeatMillis, long idleTimeoutMillis, int readTimeoutMillis) {
+        if (heartbeatMillis < 0 || readTimeoutMillis < 0) {
+            throw new IllegalArgumentException("Timeouts must not be negative");
+        }
+        if (heartbeatMillis > 0 && idleTimeoutMillis <= heartbeatMillis) {
+            throw new IllegalArgumentException("Idle timeout must exceed the heartbeat interval");
+        }
+        // A PING can go out up to two intervals after the last command, so a shorter read timeout would
+        // drop clients that are answering them.
+        if (heartbeatMillis > 0 && readTimeoutMillis > 0 && readTimeoutMillis < idleTimeoutMillis) {
+            throw new IllegalArgumentException("Read timeout must be 0 or at least the idle timeout");
         }
+        this.heartbeatMillis = heartbeatMillis;
+        this.idleTimeoutMillis = idleTimeoutMillis;
+        this.readTimeoutMillis = readTimeoutMillis;
     }
-    public void startGame() {
-        if (clients.size() < 2) {
-            broadcastMessage("ERROR:Need at least 2 players to start");
-            return;
+    // Runs on the reaper. Half-open connections never send anything, so they are the ones that pass
+    // the idle timeout; closing one makes its transport call removeClient like any other disconnect.
+    void checkHeartbeats() {
+        long now = System.nanoTime();
+        long pingAfter = TimeUnit.MILLISECONDS.toNanos(heartbeatMillis);
+        long evictAfter = TimeUnit.MILLISECONDS.toNanos(idleTimeoutMillis);
+        OutboundQueue.Message ping = OutboundQueue.Message.latest("PING");
+        for (ClientConnection client : clients) {
+            if (!client.wantsHeartbeats()) continue;
+            long idle = now - client.getLastActivity();
+            if (idle >= evictAfter) {
+                System.err.println("Evicting idle client " + client.getPlayerName());
+                client.disconnect();
+            } else if (idle >= pingAfter) {
+                client.send(ping);
+            }
         }
-        ArrayList<Player> players = new ArrayList<>();
-        for (ClientHandler client : clients) {
-            players.add(new Player(client.getPlayerName()));
+    }
+    // Applies to connections accepted afterwards.
+    public void setSlowConsumerPolicy(OutboundQueue.SlowConsumerPolicy policy, int capacity) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("Capacity must be positive: " + capacity);
         }
-        gameEngine = new GameEngine(players);
-        gameStarted = true;
-        broadcastMessage("GAME_STARTED");
-        broadcastPlayerList();
+        this.slowConsumerPolicy = policy;
+        this.outboundCapacity = capacity;
     }
-    public void playRound() {
-        if (!gameStarted || gameEngine == null) {
-            broadcastMessage("ERROR:Game not started");
-            return;
+    // Call before start; the number of selector threads serving sockets in IoMode.NIO.
+    public void setEventLoops(int eventLoops) {
+        if (eventLoops < 1) {
+            throw new IllegalArgumentException("Need at least one event loop");
+        }
+        this.eventLoops = eventLoops;
+    }
+    public int getEventLoops() {
+        return eventLoops;
+    }
+    OutboundQueue newOutboundQueue() {
+        return new OutboundQueue(outboundCapacity, slowConsumerPolicy);
+    }
+    public FloodControl getFloodControl() {
+        return floodControl;
+    }
+    // Sends to every connected client regardless of room.
+    public void broadcastMessage(String message) {
+        OutboundQueue.Message encoded = OutboundQueue.Message.of(message);
+        for (ClientConnection client : clients) {
+            client.send(encoded);
         }
-        GameEngine.GameResult result = gameEngine.playRound();
+    }
+    private ScheduledExecutorService shardFor(String roomId) {
+        return shards[Math.floorMod(roomId.hashCode(), shards.length)];
+    }
+    static String encodeRoundResult(GameEngine.GameResult result) {
         StringBuilder roundData = new StringBuilder("ROUND_RESULT:");
         roundData.append(result.getRoundNumber()).append(";");
         ArrayList<Player> players = result.getPlayers();
@@ -94,45 +263,227 @@ public class MultiplayerServer {
         } else {
             roundData.append(";TIE");
         }
-        broadcastMessage(roundData.toString());
+        return roundData.toString();
     }
-    private void broadcastPlayerList() {
-        if (gameEngine == null) return;
-        StringBuilder playerData = new StringBuilder("PLAYERS:");
-        ArrayList<Player> players = gameEngine.getPlayers();
+    static String encodeRoster(List<Player> players) {
+        StringBuilder roster = new StringBuilder("ROSTER:");
         for (int i = 0; i < players.size(); i++) {
-            playerData.append(players.get(i).showName()).append(":").append(players.get(i).showWins());
-            if (i < players.size() - 1) playerData.append(",");
+            roster.append(i).append(":");
+            WireProtocol.appendEscaped(roster, players.get(i).showName());
+            roster.append(":").append(players.get(i).showWins());
+            if (i < players.size() - 1) roster.append(",");
+        }
+        return roster.toString();
+    }
+    // Rolls in roster order, then the winner's ID and new win count; the other counters are unchanged.
+    static String encodeDelta(GameEngine.GameResult result) {
+        StringBuilder delta = new StringBuilder("DELTA:");
+        delta.append(result.getRoundNumber()).append(";");
+        ArrayList<Integer> rolls = result.getRolls();
+        for (int i = 0; i < rolls.size(); i++) {
+            delta.append(rolls.get(i));
+            if (i < rolls.size() - 1) delta.append(",");
+        }
+        int winnerIndex = result.getWinnerIndex();
+        if (winnerIndex >= 0) {
+            delta.append(";").append(winnerIndex).append(":").append(result.getPlayers().get(winnerIndex).showWins());
+        } else {
+            delta.append(";TIE");
+        }
+        return delta.toString();
+    }
+    public void addClient(ClientConnection client) {
+        clients.add(client);
+        System.out.println("Client connected. Total clients: " + liveClients.incrementAndGet());
+        moveTo(client, defaultRoom);
+    }
+    // Called by the transport once per connection. The client leaves its room at once but stays in the
+    // list, where sends to it are no-ops, until the next batched removal.
+    public void removeClient(ClientConnection client) {
+        if (!departed.add(client)) {
+            return;
+        }
+        moveTo(client, null);
+        System.out.println("Client disconnected. Total clients: " + liveClients.decrementAndGet());
+        if (removalScheduled.compareAndSet(false, true)) {
+            try {
+                reaper.schedule(this::removeDeparted, REMOVAL_BATCH_MILLIS, TimeUnit.MILLISECONDS);
+            } catch (RejectedExecutionException e) {
+                // Stopped; the server's lists go away with it.
+            }
+        }
+    }
+    private void removeDeparted() {
+        removalScheduled.set(false);
+        Set<ClientConnection> batch = new HashSet<>(departed);
+        clients.removeAll(batch);
+        departed.removeAll(batch);
+    }
+    // Leaves the current room on its shard, then joins the target on the target's shard. Empty rooms
+    // other than the default one are dropped so abandoned rooms do not pile up.
+    private void moveTo(ClientConnection client, GameRoom target) {
+        GameRoom current = client.getRoom();
+        client.setRoom(target);
+        if (current != null) {
+            current.execute(() -> {
+                current.leave(client);
+                if (current != defaultRoom && current.isEmpty()) {
+                    rooms.remove(current.getId(), current);
+                    current.close();
+                }
+            });
+        }
+        if (target != null) {
+            target.execute(() -> {
+                if (!target.join(client)) {
+                    client.setRoom(null);
+                    client.sendMessage("ERROR:No such room");
+                }
+            });
+        }
+    }
+    void processMessage(ClientConnection client, String message) {
+        String[] parts = message.split(":", 2);
+        String command = parts[0];
+        String argument = parts.length > 1 ? parts[1] : null;
+        client.markActive();
+        FloodControl.TokenBucket rateLimit = client.getRateLimit();
+        if (rateLimit != null && !rateLimit.tryAcquire()) {
+            floodControl.recordRateLimited();
+            if (rateLimit.startRejecting()) {
+                client.sendMessage("ERROR:RATE_LIMITED");
+            }
+            return;
         }
-        broadcastMessage(playerData.toString());
+        switch (command) {
+            case "SET_NAME":
+                if (argument != null) {
+                    client.setPlayerName(argument);
+                    client.sendMessage("NAME_SET:" + argument);
+                }
+                break;
+            case "PROTOCOL":
+                if (WireProtocol.BINARY_VERSION.equals(argument)) {
+                    if (!client.isBinary()) {
+                        client.enableBinary(message);
+                        sendRoster(client);
+                    }
+                } else if (WireProtocol.DELTA_VERSION.equals(argument)) {
+                    if (!client.wantsDeltas()) {
+                        client.enableDeltas();
+                        client.sendMessage(message);
+                        sendRoster(client);
+                    }
+                } else if (WireProtocol.HEARTBEAT_VERSION.equals(argument)) {
+                    if (!client.wantsHeartbeats()) {
+                        client.enableHeartbeats();
+                        client.sendMessage(message);
+                    }
+                } else if (!"TEXT".equals(argument)) {
+                    client.sendMessage("ERROR:Unsupported protocol");
+                }
+                break;
+            case "PING":
+                client.sendMessage("PONG");
+                break;
+            case "PONG":
+                break;
+            case "GET_METRICS":
+                client.sendMessage("METRICS:clients=" + liveClients.get() + ";rooms=" + rooms.size()
+                        + ";rateLimited=" + floodControl.getRateLimited() + ";coalescedRolls=" + floodControl.getCoalescedRolls());
+                break;
+            case "CREATE_ROOM":
+                if (!isValidRoomId(argument)) {
+                    client.sendMessage("ERROR:Invalid room id");
+                    break;
+                }
+                GameRoom created = new GameRoom(argument, shardFor(argument), rng, null, null, floodControl);
+                if (rooms.putIfAbsent(argument, created) != null) {
+                    client.sendMessage("ERROR:Room already exists");
+                    break;
+                }
+                moveTo(client, created);
+                break;
+            case "JOIN_ROOM":
+                GameRoom room = argument != null ? rooms.get(argument) : null;
+                if (room == null) {
+                    client.sendMessage("ERROR:No such room");
+                } else if (room != client.getRoom()) {
+                    moveTo(client, room);
+                }
+                break;
+            case "LEAVE_ROOM":
+                if (client.getRoom() != null) {
+                    moveTo(client, null);
+                }
+                break;
+            default:
+                GameRoom current = client.getRoom();
+                if (current == null) {
+                    client.sendMessage("ERROR:Not in a room");
+                } else {
+                    current.execute(() -> current.handle(client, command, argument));
+                }
+                break;
+        }
+    }
+    private static void sendRoster(ClientConnection client) {
+        GameRoom joined = client.getRoom();
+        if (joined != null) {
+            joined.execute(() -> joined.sendRoster(client));
+        }
+    }
+    private static boolean isValidRoomId(String roomId) {
+        if (roomId == null || roomId.isEmpty() || roomId.length() > MAX_ROOM_ID_LENGTH) {
+            return false;
+        }
+        for (int i = 0; i < roomId.length(); i++) {
+            char c = roomId.charAt(i);
+            if (c == ':' || c == ';' || c == ',' || Character.isWhitespace(c)) {
+                return false;
+            }
+        }
+        return true;
     }
-    public void removeClient(ClientHandler client) {
-        clients.remove(client);
-        broadcastMessage("PLAYER_COUNT:" + clients.size());
-        System.out.println("Client disconnected. Total clients: " + clients.size());
+    public int getClientCount() {
+        return liveClients.get();
     }
-    public boolean isGameStarted() {
-        return gameStarted;
+    public int getRoomCount() {
+        return rooms.size();
     }
-    static class ClientHandler extends Thread {
+    static class ClientHandler implements Runnable, ClientConnection {
         private Socket socket;
         private MultiplayerServer server;
-        private PrintWriter out;
+        private OutputStream out;
+        private OutboundQueue outbound;
+        private final AtomicBoolean draining = new AtomicBoolean();
+        private final FloodControl.TokenBucket rateLimit;
+        private volatile long lastActivity = System.nanoTime();
+        private volatile boolean binary;
+        private volatile boolean deltas;
+        private volatile boolean heartbeats;
+        private boolean writingFrames;
         private BufferedReader in;
-        private String playerName;
-        public ClientHandler(Socket socket, MultiplayerServer server) {
+        private volatile String playerName;
+        private volatile GameRoom room;
+        public ClientHandler(Socket socket, MultiplayerServer server) throws IOException {
             this.socket = socket;
             this.server = server;
+            this.out = new BufferedOutputStream(socket.getOutputStream());
+            this.outbound = server.newOutboundQueue();
+            this.rateLimit = server.floodControl.newBucket();
         }
         @Override
         public void run() {
             try {
-                out = new PrintWriter(socket.getOutputStream(), true);
-                in = new BufferedReader(new InputStreamReader(socket.getInputStream()));
+                socket.setKeepAlive(true);
+                in = new BufferedReader(new InputStreamReader(socket.getInputStream(), StandardCharsets.UTF_8));
                 String inputLine;
                 while ((inputLine = in.readLine()) != null) {
-                    processMessage(inputLine);
+                    server.processMessage(this, inputLine);
                 }
+            } catch (SocketTimeoutException e) {
+                System.err.println("Read timed out for client " + getPlayerName());
             } catch (IOException e) {
                 System.err.println("Error in client handler: " + e.getMessage());
             } finally {
@@ -140,32 +491,92 @@ public class MultiplayerServer {
                 server.removeClient(this);
             }
         }
-        private void processMessage(String message) {
-            String[] parts = message.split(":", 2);
-            String command = parts[0];
-            switch (command) {
-                case "SET_NAME":
-                    if (parts.length > 1) {
-                        playerName = parts[1];
-                        sendMessage("NAME_SET:" + playerName);
+        @Override
+        public void send(OutboundQueue.Message message) {
+            if (socket.isClosed()) {
+                return;
+            }
+            if (!outbound.offer(message)) {
+                System.err.println("Disconnecting slow client " + getPlayerName());
+                outbound.clear();
+                disconnect();
+                return;
+            }
+            if (draining.compareAndSet(false, true)) {
+                try {
+                    server.writers.execute(this::drain);
+                } catch (RejectedExecutionException e) {
+                    draining.set(false);
+                }
+            }
+        }
+        // Runs on a writer task; at most one per client at a time, so the stream needs no lock and a
+        // stalled socket only ties up its own writer.
+        private void drain() {
+            try {
+                do {
+                    OutboundQueue.Message message;
+                    while ((message = outbound.poll()) != null) {
+                        out.write(message.bytes(writingFrames));
+                        writingFrames |= message.switchesToBinary();
                     }
-                    break;
-                case "START_GAME":
-                    server.startGame();
-                    break;
-                case "ROLL_DICE":
-                    server.playRound();
-                    break;
-                case "GET_STATUS":
-                    sendMessage("GAME_STATUS:" + (server.isGameStarted() ? "STARTED" : "WAITING"));
-                    break;
+                    out.flush();
+                    draining.set(false);
+                } while (!outbound.isEmpty() && draining.compareAndSet(false, true));
+            } catch (IOException e) {
+                outbound.clear();
+                disconnect();
             }
         }
-        public void sendMessage(String message) {
-            if (out != null) {
-                out.println(message);
+        @Override
+        public boolean isBinary() {
+            return binary;
+        }
+        @Override
+        public void enableBinary(String acknowledgement) {
+            send(OutboundQueue.Message.switchToBinary(acknowledgement));
+            deltas = true;
+            binary = true;
+        }
+        @Override
+        public FloodControl.TokenBucket getRateLimit() {
+            return rateLimit;
+        }
+        @Override
+        public long getLastActivity() {
+            return lastActivity;
+        }
+        @Override
+        public void markActive() {
+            lastActivity = System.nanoTime();
+        }
+        @Override
+        public boolean wantsDeltas() {
+            return deltas;
+        }
+        @Override
+        public void enableDeltas() {
+            deltas = true;
+        }
+        @Override
+        public boolean wantsHeartbeats() {
+            return heartbeats;
+        }
+        // Runs on this client's reader thread, so the timeout applies from its next read.
+        @Override
+        public void enableHeartbeats() {
+            heartbeats = true;
+            try {
+                socket.setSoTimeout(server.readTimeoutMillis);
+            } catch (SocketException e) {
+                disconnect();
             }
         }
+        @Override
+        public boolean takeMissedDelta() {
+            return outbound.takeMissedDelta();
+        }
+        @Override
         public void disconnect() {
             try {
                 if (socket != null && !socket.isClosed()) {
@@ -175,8 +586,21 @@ public class MultiplayerServer {
                 System.err.println("Error closing client socket: " + e.getMessage());
             }
         }
+        @Override
         public String getPlayerName() {
             return playerName != null ? playerName : "Unknown";
         }
+        @Override
+        public void setPlayerName(String playerName) {
+            this.playerName = playerName;
+        }
+        @Override
+        public GameRoom getRoom() {
+            return room;
+        }
+        @Override
+        public void setRoom(GameRoom room) {
+            this.room = room;
+        }
     }
 }
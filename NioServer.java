@@ -0,0 +1,420 @@
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.Iterator;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+// Non-blocking transport for MultiplayerServer: a few selector threads serve every socket instead of
+// one blocked thread per client. Buffers come from a shared pool of direct buffers and are only held
+// by a connection while it has a partial line to read or bytes still waiting to be written.
+public class NioServer {
+    static final int BUFFER_SIZE = 8 * 1024;
+    private MultiplayerServer server;
+    private int port;
+    private EventLoop[] loops;
+    private ServerSocketChannel acceptChannel;
+    private BufferPool pool;
+    private volatile boolean running;
+    private int nextLoop;
+    public NioServer(MultiplayerServer server, int port, int eventLoops) {
+        if (eventLoops < 1) {
+            throw new IllegalArgumentException("Need at least one event loop");
+        }
+        this.server = server;
+        this.port = port;
+        this.loops = new EventLoop[eventLoops];
+        this.pool = new BufferPool(BUFFER_SIZE);
+    }
+    public void start() throws IOException {
+        acceptChannel = ServerSocketChannel.open();
+        acceptChannel.bind(new InetSocketAddress(port));
+        acceptChannel.configureBlocking(false);
+        running = true;
+        for (int i = 0; i < loops.length; i++) {
+            loops[i] = new EventLoop(i);
+        }
+        acceptChannel.register(loops[0].selector, SelectionKey.OP_ACCEPT);
+        for (EventLoop loop : loops) {
+            loop.thread.start();
+        }
+    }
+    public void stop() {
+        running = false;
+        for (EventLoop loop : loops) {
+            if (loop != null) {
+                loop.selector.wakeup();
+            }
+        }
+        try {
+            if (acceptChannel != null) {
+                acceptChannel.close();
+            }
+        } catch (IOException e) {
+            System.err.println("Error closing server channel: " + e.getMessage());
+        }
+    }
+    public int getEventLoopCount() {
+        return loops.length;
+    }
+    private void accept() throws IOException {
+        SocketChannel channel;
+        while ((channel = acceptChannel.accept()) != null) {
+            channel.configureBlocking(false);
+            channel.socket().setTcpNoDelay(true);
+            channel.socket().setKeepAlive(true);
+            EventLoop loop = loops[nextLoop];
+            nextLoop = (nextLoop + 1) % loops.length;
+            Connection connection = new Connection(channel, loop);
+            loop.register(connection);
+            server.addClient(connection);
+        }
+    }
+    private class EventLoop implements Runnable {
+        private Selector selector;
+        private Thread thread;
+        private Queue<Connection> registrations = new ConcurrentLinkedQueue<>();
+        private Queue<Connection> dirty = new ConcurrentLinkedQueue<>();
+        private byte[] lineBytes = new byte[BUFFER_SIZE];
+        EventLoop(int index) throws IOException {
+            this.selector = Selector.open();
+            this.thread = new Thread(this, "nio-loop-" + index);
+        }
+        void register(Connection connection) {
+            registrations.add(connection);
+            wakeup();
+        }
+        void schedule(Connection connection) {
+            dirty.add(connection);
+            wakeup();
+        }
+        private void wakeup() {
+            if (Thread.currentThread() != thread) {
+                selector.wakeup();
+            }
+        }
+        @Override
+        public void run() {
+            try {
+                while (running) {
+                    Connection connection;
+                    while ((connection = registrations.poll()) != null) {
+                        try {
+                            connection.key = connection.channel.register(selector, SelectionKey.OP_READ, connection);
+                            connection.flushOrClose();
+                        } catch (ClosedChannelException e) {
+                            connection.close();
+                        }
+                    }
+                    selector.select();
+                    Iterator<SelectionKey> keys = selector.selectedKeys().iterator();
+                    while (keys.hasNext()) {
+                        SelectionKey key = keys.next();
+                        keys.remove();
+                        handle(key);
+                    }
+                    flushDirty();
+                }
+            } catch (IOException e) {
+                System.err.println("Event loop failed: " + e.getMessage());
+            } finally {
+                for (SelectionKey key : selector.keys()) {
+                    if (key.attachment() instanceof Connection) {
+                        ((Connection) key.attachment()).close();
+                    }
+                }
+                try {
+                    selector.close();
+                } catch (IOException e) {
+                    System.err.println("Error closing selector: " + e.getMessage());
+                }
+            }
+        }
+        private void flushDirty() {
+            Connection connection;
+            while ((connection = dirty.poll()) != null) {
+                connection.scheduled.set(false);
+                if (connection.closed.get()) {
+                    connection.releaseBuffers();
+                } else {
+                    connection.flushOrClose();
+                }
+            }
+        }
+        private void handle(SelectionKey key) throws IOException {
+            if (!key.isValid()) {
+                return;
+            }
+            if (key.isAcceptable()) {
+                accept();
+                return;
+            }
+            Connection connection = (Connection) key.attachment();
+            if (key.isReadable()) {
+                connection.readOrClose();
+            }
+            if (key.isValid() && key.isWritable()) {
+                connection.flushOrClose();
+            }
+        }
+    }
+    private class Connection implements ClientConnection {
+        private SocketChannel channel;
+        private EventLoop loop;
+        private SelectionKey key;
+        private ByteBuffer readBuffer;
+        private ByteBuffer writeBuffer;
+        private OutboundQueue outbound = server.newOutboundQueue();
+        private FloodControl.TokenBucket rateLimit = server.getFloodControl().newBucket();
+        private volatile long lastActivity = System.nanoTime();
+        private byte[] current;
+        private int currentOffset;
+        private volatile boolean binary;
+        private volatile boolean deltas;
+        private volatile boolean heartbeats;
+        private boolean writingFrames;
+        private AtomicBoolean scheduled = new AtomicBoolean();
+        private AtomicBoolean closed = new AtomicBoolean();
+        private volatile String playerName;
+        private volatile GameRoom room;
+        Connection(SocketChannel channel, EventLoop loop) {
+            this.channel = channel;
+            this.loop = loop;
+        }
+        @Override
+        public void send(OutboundQueue.Message message) {
+            if (closed.get()) {
+                return;
+            }
+            if (!outbound.offer(message)) {
+                System.err.println("Disconnecting slow client " + getPlayerName());
+                close();
+                return;
+            }
+            if (scheduled.compareAndSet(false, true)) {
+                loop.schedule(this);
+            }
+        }
+        private void readOrClose() {
+            try {
+                if (readBuffer == null) {
+                    readBuffer = pool.acquire();
+                }
+                int read = channel.read(readBuffer);
+                if (read < 0) {
+                    close();
+                    return;
+                }
+                readBuffer.flip();
+                int lineStart = readBuffer.position();
+                for (int i = lineStart; i < readBuffer.limit(); i++) {
+                    if (readBuffer.get(i) == '\n') {
+                        int end = i > lineStart && readBuffer.get(i - 1) == '\r' ? i - 1 : i;
+                        readBuffer.get(lineStart, loop.lineBytes, 0, end - lineStart);
+                        server.processMessage(this, new String(loop.lineBytes, 0, end - lineStart, StandardCharsets.UTF_8));
+                        // A command may have closed the connection, which hands readBuffer back to the pool.
+                        if (closed.get()) {
+                            return;
+                        }
+                        lineStart = i + 1;
+                    }
+                }
+                readBuffer.position(lineStart);
+                readBuffer.compact();
+                if (readBuffer.position() == 0) {
+                    pool.release(readBuffer);
+                    readBuffer = null;
+                } else if (!readBuffer.hasRemaining()) {
+                    System.err.println("Dropping client with an oversized line");
+                    close();
+                }
+            } catch (IOException e) {
+                close();
+            } catch (RuntimeException e) {
+                System.err.println("Error handling client message: " + e);
+                close();
+            }
+        }
+        private void flushOrClose() {
+            try {
+                setWriteInterest(!flush());
+            } catch (IOException e) {
+                close();
+            }
+        }
+        // Writes as much as the socket takes; returns false when bytes are left for the next OP_WRITE.
+        private boolean flush() throws IOException {
+            if (closed.get()) {
+                return true;
+            }
+            while (true) {
+                if (writeBuffer != null && writeBuffer.hasRemaining()) {
+                    channel.write(writeBuffer);
+                    if (writeBuffer.hasRemaining()) {
+                        return false;
+                    }
+                }
+                if (current == null) {
+                    current = nextPending();
+                    currentOffset = 0;
+                }
+                if (current == null) {
+                    if (writeBuffer != null) {
+                        pool.release(writeBuffer);
+                        writeBuffer = null;
+                    }
+                    return true;
+                }
+                if (writeBuffer == null) {
+                    writeBuffer = pool.acquire();
+                }
+                writeBuffer.clear();
+                while (current != null && writeBuffer.hasRemaining()) {
+                    int n = Math.min(writeBuffer.remaining(), current.length - currentOffset);
+                    writeBuffer.put(current, currentOffset, n);
+                    currentOffset += n;
+                    if (currentOffset == current.length) {
+                        current = nextPending();
+                        currentOffset = 0;
+                    }
+                }
+                writeBuffer.flip();
+            }
+        }
+        private byte[] nextPending() {
+            OutboundQueue.Message message = outbound.poll();
+            if (message == null) {
+                return null;
+            }
+            byte[] bytes = message.bytes(writingFrames);
+            writingFrames |= message.switchesToBinary();
+            return bytes;
+        }
+        private void setWriteInterest(boolean write) {
+            if (key != null && key.isValid()) {
+                key.interestOps(write ? SelectionKey.OP_READ | SelectionKey.OP_WRITE : SelectionKey.OP_READ);
+            }
+        }
+        private void close() {
+            if (!closed.compareAndSet(false, true)) {
+                return;
+            }
+            try {
+                channel.close();
+            } catch (IOException e) {
+                System.err.println("Error closing client channel: " + e.getMessage());
+            }
+            // Buffers are only touched by the owning loop, so a close from another thread leaves
+            // returning them to that loop, the same way sends are flushed.
+            if (Thread.currentThread() == loop.thread) {
+                releaseBuffers();
+            } else if (scheduled.compareAndSet(false, true)) {
+                loop.schedule(this);
+            }
+            outbound.clear();
+            server.removeClient(this);
+        }
+        private void releaseBuffers() {
+            if (readBuffer != null) {
+                pool.release(readBuffer);
+                readBuffer = null;
+            }
+            if (writeBuffer != null) {
+                pool.release(writeBuffer);
+                writeBuffer = null;
+            }
+        }
+        @Override
+        public boolean isBinary() {
+            return binary;
+        }
+        @Override
+        public void enableBinary(String acknowledgement) {
+            send(OutboundQueue.Message.switchToBinary(acknowledgement));
+            deltas = true;
+            binary = true;
+        }
+        @Override
+        public FloodControl.TokenBucket getRateLimit() {
+            return rateLimit;
+        }
+        @Override
+        public long getLastActivity() {
+            return lastActivity;
+        }
+        @Override
+        public void markActive() {
+            lastActivity = System.nanoTime();
+        }
+        @Override
+        public boolean wantsDeltas() {
+            return deltas;
+        }
+        @Override
+        public void enableDeltas() {
+            deltas = true;
+        }
+        @Override
+        public boolean wantsHeartbeats() {
+            return heartbeats;
+        }
+        @Override
+        public void enableHeartbeats() {
+            heartbeats = true;
+        }
+        @Override
+        public boolean takeMissedDelta() {
+            return outbound.takeMissedDelta();
+        }
+        @Override
+        public void disconnect() {
+            close();
+        }
+        @Override
+        public String getPlayerName() {
+            return playerName != null ? playerName : "Unknown";
+        }
+        @Override
+        public void setPlayerName(String playerName) {
+            this.playerName = playerName;
+        }
+        @Override
+        public GameRoom getRoom() {
+            return room;
+        }
+        @Override
+        public void setRoom(GameRoom room) {
+            this.room = room;
+        }
+    }
+    // Fixed-size direct buffers shared by all loops; direct memory is costly to allocate and is only
+    // reclaimed by GC, so idle connections hand their buffers back instead of keeping one each.
+    static class BufferPool {
+        private static final int MAX_POOLED = 1024;
+        private int bufferSize;
+        private ArrayDeque<ByteBuffer> free = new ArrayDeque<>();
+        BufferPool(int bufferSize) {
+            this.bufferSize = bufferSize;
+        }
+        synchronized ByteBuffer acquire() {
+            ByteBuffer buffer = free.pollFirst();
+            if (buffer == null) {
+                return ByteBuffer.allocateDirect(bufferSize);
+            }
+            buffer.clear();
+            return buffer;
+        }
+        synchronized void release(ByteBuffer buffer) {
+            if (free.size() < MAX_POOLED) {
+                free.addFirst(buffer);
+            }
+        }
+    }
+}
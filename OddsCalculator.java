@@ -0,0 +1,118 @@
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+public class OddsCalculator {
+    // Building Odds is linear in the number of totals, so only the convolution is cached, and only for
+    // the most recently used dice; callers can ask about any (sides, dice) pair.
+    static final int MAX_CACHED_DISTRIBUTIONS = 64;
+    private static final Map<Long, double[]> SUM_DISTRIBUTIONS = new LinkedHashMap<Long, double[]>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Long, double[]> eldest) {
+            return size() > MAX_CACHED_DISTRIBUTIONS;
+        }
+    };
+    public static Odds forGame(int players, int sides, int dicePerPlayer) {
+        if (players < 1 || sides < 1 || dicePerPlayer < 1) {
+            throw new IllegalArgumentException("Invalid game: " + players + " players, d" + sides + " x" + dicePerPlayer);
+        }
+        return new Odds(players, sides, dicePerPlayer, sumDistribution(sides, dicePerPlayer));
+    }
+    public static Odds forGame(int players) {
+        return forGame(players, Dice.DEFAULT_SIDES, 1);
+    }
+    // Probability of each total when rolling `dice` dice with `sides` faces; index is the total.
+    public static double[] sumDistribution(int sides, int dice) {
+        Long key = ((long) sides << 32) | dice;
+        double[] cached;
+        synchronized (SUM_DISTRIBUTIONS) {
+            cached = SUM_DISTRIBUTIONS.get(key);
+        }
+        if (cached == null) {
+            double[] dist = new double[sides + 1];
+            for (int face = 1; face <= sides; face++) {
+                dist[face] = 1.0 / sides;
+            }
+            for (int d = 1; d < dice; d++) {
+                double[] next = new double[dist.length + sides];
+                for (int total = 0; total < dist.length; total++) {
+                    if (dist[total] == 0) continue;
+                    for (int face = 1; face <= sides; face++) {
+                        next[total + face] += dist[total] / sides;
+                    }
+                }
+                dist = next;
+            }
+            cached = dist;
+            synchronized (SUM_DISTRIBUTIONS) {
+                SUM_DISTRIBUTIONS.put(key, cached);
+            }
+        }
+        return cached.clone();
+    }
+    static int cachedDistributions() {
+        synchronized (SUM_DISTRIBUTIONS) {
+            return SUM_DISTRIBUTIONS.size();
+        }
+    }
+    public static class Odds {
+        private final int players;
+        private final int sides;
+        private final int dicePerPlayer;
+        private final double[] dist;
+        private final double[] cdf;
+        private final double soleWin;
+        private final double expectedWinningRoll;
+        Odds(int players, int sides, int dicePerPlayer, double[] dist) {
+            this.players = players;
+            this.sides = sides;
+            this.dicePerPlayer = dicePerPlayer;
+            this.dist = dist;
+            this.cdf = new double[dist.length];
+            double running = 0;
+            for (int v = 0; v < dist.length; v++) {
+                running += dist[v];
+                cdf[v] = Math.min(running, 1.0);
+            }
+            double expected = 0;
+            for (int v = 1; v < dist.length; v++) {
+                expected += v * (Math.pow(cdf[v], players) - Math.pow(cdf[v - 1], players));
+            }
+            this.expectedWinningRoll = expected;
+            this.soleWin = tieProbability(1);
+        }
+        // Probability that exactly k players share the highest roll (k = 1 is a sole win).
+        public double tieProbability(int k) {
+            if (k < 1 || k > players) return 0;
+            double logChoose = logChoose(players, k);
+            double total = 0;
+            for (int v = 1; v < dist.length; v++) {
+                if (dist[v] == 0) continue;
+                double below = cdf[v - 1];
+                if (below == 0 && k < players) continue;
+                double logTerm = logChoose + k * Math.log(dist[v]) + (k == players ? 0 : (players - k) * Math.log(below));
+                total += Math.exp(logTerm);
+            }
+            return total;
+        }
+        public double getSoleWinProbability() { return soleWin; }
+        public double getPlayerWinProbability() { return soleWin / players; }
+        public double getTieProbability() { return Math.max(0, 1 - soleWin); }
+        public double getExpectedWinningRoll() { return expectedWinningRoll; }
+        public int getPlayers() { return players; }
+        public int getSides() { return sides; }
+        public int getDicePerPlayer() { return dicePerPlayer; }
+        @Override
+        public String toString() {
+            return String.format(Locale.ROOT, "%d players, d%d x%d: win %.4f%% each, tie %.4f%%, expected high roll %.3f",
+                    players, sides, dicePerPlayer, getPlayerWinProbability() * 100, getTieProbability() * 100, expectedWinningRoll);
+        }
+        private static double logChoose(int n, int k) {
+            int m = Math.min(k, n - k);
+            double sum = 0;
+            for (int i = 1; i <= m; i++) {
+                sum += Math.log((double) (n - m + i) / i);
+            }
+            return sum;
+        }
+    }
+}
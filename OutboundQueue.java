@@ -0,0 +1,230 @@
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.concurrent.locks.ReentrantLock;
+// Bounded per-client queue of encoded lines waiting for the socket. Broadcasters only enqueue, so a
+// stalled client can never hold up a round; what happens once its queue is full is up to the policy.
+public class OutboundQueue {
+    public static final int DEFAULT_CAPACITY = 1024;
+    // What a full queue may do with a message under DROP and COALESCE; DISCONNECT treats them alike.
+    public enum Delivery {
+        // Control messages, rosters and replies: queued past the capacity, since losing one leaves the
+        // client confused. A client that lets twice the capacity pile up is disconnected.
+        ALWAYS,
+        // State that supersedes earlier messages of its kind (full ROUND_RESULT lines, PLAYER_COUNT):
+        // may be coalesced or dropped.
+        LATEST,
+        // Only meaningful on top of every earlier delta: dropped, but the queue remembers so the sender
+        // can follow up with a roster (see takeMissedDelta).
+        DELTA
+    }
+    public enum SlowConsumerPolicy {
+        // Discard a new LATEST message.
+        DROP,
+        // Overwrite the newest queued LATEST message of the same kind where it stands, so it keeps its
+        // place among the control lines; drop the new one if nothing can be replaced. Results carry
+        // running totals, so the latest wins.
+        COALESCE,
+        // Close the connection.
+        DISCONNECT
+    }
+    // Ring buffer rather than a deque so a coalesced message can be overwritten in place.
+    private Message[] ring = new Message[16];
+    private int head;
+    private int size;
+    private final ReentrantLock lock = new ReentrantLock();
+    private final int capacity;
+    private final SlowConsumerPolicy policy;
+    private long dropped;
+    private long coalesced;
+    private boolean missedDelta;
+    public OutboundQueue(int capacity, SlowConsumerPolicy policy) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("Capacity must be positive: " + capacity);
+        }
+        this.capacity = capacity;
+        this.policy = policy;
+    }
+    // Returns false when the policy says the client should be disconnected. The protocol switch is
+    // always queued: dropping it would leave the client reading frames as text.
+    public boolean offer(Message message) {
+        lock.lock();
+        try {
+            if (size < capacity || message.switchesToBinary) {
+                addLast(message);
+                return true;
+            }
+            if (policy == SlowConsumerPolicy.DISCONNECT) {
+                return false;
+            }
+            switch (message.delivery) {
+                case LATEST:
+                    if (policy == SlowConsumerPolicy.COALESCE && replaceNewest(message)) {
+                        coalesced++;
+                    } else {
+                        dropped++;
+                    }
+                    return true;
+                case DELTA:
+                    dropped++;
+                    missedDelta = true;
+                    return true;
+                default:
+                    if (size >= 2 * capacity) {
+                        return false;
+                    }
+                    addLast(message);
+                    return true;
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+    private boolean replaceNewest(Message message) {
+        int mask = ring.length - 1;
+        for (int i = size - 1; i >= 0; i--) {
+            int index = (head + i) & mask;
+            Message queued = ring[index];
+            if (queued.delivery == Delivery.LATEST && queued.kind.equals(message.kind)) {
+                ring[index] = message;
+                return true;
+            }
+        }
+        return false;
+    }
+    private void addLast(Message message) {
+        if (size == ring.length) {
+            Message[] grown = new Message[ring.length * 2];
+            for (int i = 0; i < size; i++) {
+                grown[i] = ring[(head + i) & (ring.length - 1)];
+            }
+            ring = grown;
+            head = 0;
+        }
+        ring[(head + size) & (ring.length - 1)] = message;
+        size++;
+    }
+    // True once after a delta was dropped; the client's counters are stale until it gets a roster.
+    public boolean takeMissedDelta() {
+        lock.lock();
+        try {
+            boolean missed = missedDelta;
+            missedDelta = false;
+            return missed;
+        } finally {
+            lock.unlock();
+        }
+    }
+    public Message poll() {
+        lock.lock();
+        try {
+            if (size == 0) {
+                return null;
+            }
+            Message message = ring[head];
+            ring[head] = null;
+            head = (head + 1) & (ring.length - 1);
+            size--;
+            return message;
+        } finally {
+            lock.unlock();
+        }
+    }
+    public boolean isEmpty() {
+        lock.lock();
+        try {
+            return size == 0;
+        } finally {
+            lock.unlock();
+        }
+    }
+    public void clear() {
+        lock.lock();
+        try {
+            Arrays.fill(ring, null);
+            head = 0;
+            size = 0;
+        } finally {
+            lock.unlock();
+        }
+    }
+    public long getDropped() {
+        lock.lock();
+        try {
+            return dropped;
+        } finally {
+            lock.unlock();
+        }
+    }
+    public long getCoalesced() {
+        lock.lock();
+        try {
+            return coalesced;
+        } finally {
+            lock.unlock();
+        }
+    }
+    // One protocol message encoded once and shared by every recipient; the bytes must not be modified.
+    // It carries the text line, the binary frame, or both. A connection that negotiated frames but
+    // gets a text-only message receives the line wrapped in a TEXT frame.
+    public static final class Message {
+        private final String kind;
+        private final Delivery delivery;
+        private final byte[] text;
+        private volatile byte[] frame;
+        private final boolean switchesToBinary;
+        private Message(String kind, Delivery delivery, byte[] text, byte[] frame, boolean switchesToBinary) {
+            this.kind = kind;
+            this.delivery = delivery;
+            this.text = text;
+            this.frame = frame;
+            this.switchesToBinary = switchesToBinary;
+        }
+        public static Message of(String line) {
+            return new Message(kindOf(line), Delivery.ALWAYS, encode(line), null, false);
+        }
+        public static Message latest(String line) {
+            return new Message(kindOf(line), Delivery.LATEST, encode(line), null, false);
+        }
+        // Either form may be null when no recipient needs it, but not both.
+        static Message of(String kind, Delivery delivery, String line, byte[] frame) {
+            if (line == null && frame == null) {
+                throw new IllegalArgumentException("Message needs a text or binary form");
+            }
+            return new Message(kind, delivery, line != null ? encode(line) : null, frame, false);
+        }
+        // Sent as text; everything the connection writes after it is framed.
+        static Message switchToBinary(String line) {
+            return new Message(kindOf(line), Delivery.ALWAYS, encode(line), null, true);
+        }
+        private static String kindOf(String line) {
+            int colon = line.indexOf(':');
+            return colon < 0 ? line : line.substring(0, colon);
+        }
+        private static byte[] encode(String line) {
+            return (line + "\n").getBytes(StandardCharsets.UTF_8);
+        }
+        public String getKind() {
+            return kind;
+        }
+        public Delivery getDelivery() {
+            return delivery;
+        }
+        byte[] bytes(boolean binary) {
+            if (!binary || switchesToBinary) {
+                if (text == null) {
+                    throw new IllegalStateException("No text form for " + kind);
+                }
+                return text;
+            }
+            byte[] encoded = frame;
+            if (encoded == null) {
+                encoded = WireProtocol.textFrame(text);
+                frame = encoded;
+            }
+            return encoded;
+        }
+        boolean switchesToBinary() {
+            return switchesToBinary;
+        }
+    }
+}
@@ -0,0 +1,91 @@
+import java.util.ArrayList;
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+public class ParallelSimulator {
+    // Fixed chunk size keeps the split tree, and so the result, independent of pool parallelism.
+    static final long CHUNK_ROUNDS = 1L << 20;
+    private ArrayList<Player> players;
+    private int sides;
+    private int dicePerPlayer;
+    private long seed;
+    private ForkJoinPool pool;
+    public ParallelSimulator(ArrayList<Player> players, long seed) {
+        this(players, seed, ForkJoinPool.commonPool());
+    }
+    public ParallelSimulator(ArrayList<Player> players, long seed, ForkJoinPool pool) {
+        this(players, Dice.DEFAULT_SIDES, 1, seed, pool);
+    }
+    public ParallelSimulator(ArrayList<Player> players, int sides, int dicePerPlayer, long seed, ForkJoinPool pool) {
+        this.players = players;
+        this.sides = sides;
+        this.dicePerPlayer = dicePerPlayer;
+        this.seed = seed;
+        this.pool = pool;
+    }
+    public GameEngine.SimulationSummary simulate(long rounds) {
+        if (rounds < 0) {
+            throw new IllegalArgumentException("rounds must not be negative: " + rounds);
+        }
+        long chunkCount = (rounds + CHUNK_ROUNDS - 1) / CHUNK_ROUNDS;
+        if (chunkCount > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Too many rounds: " + rounds);
+        }
+        SplittableRandom master = new SplittableRandom(seed);
+        SplittableRandom[] streams = new SplittableRandom[(int) chunkCount];
+        for (int i = 0; i < streams.length; i++) {
+            streams[i] = master.split();
+        }
+        long[] totals = pool.invoke(new ChunkTask(players.size(), sides, dicePerPlayer, rounds, streams, 0, streams.length));
+        long[] wins = new long[players.size()];
+        System.arraycopy(totals, 0, wins, 0, wins.length);
+        return new GameEngine.SimulationSummary(players, rounds, wins, totals[wins.length]);
+    }
+    public long getSeed() {
+        return seed;
+    }
+    private static class ChunkTask extends RecursiveTask<long[]> {
+        private final int playerCount;
+        private final int sides;
+        private final int dicePerPlayer;
+        private final long totalRounds;
+        private final SplittableRandom[] streams;
+        private final int from;
+        private final int to;
+        ChunkTask(int playerCount, int sides, int dicePerPlayer, long totalRounds, SplittableRandom[] streams, int from, int to) {
+            this.playerCount = playerCount;
+            this.sides = sides;
+            this.dicePerPlayer = dicePerPlayer;
+            this.totalRounds = totalRounds;
+            this.streams = streams;
+            this.from = from;
+            this.to = to;
+        }
+        @Override
+        protected long[] compute() {
+            if (to - from <= 1) {
+                // Slot playerCount carries the tie count.
+                long[] totals = new long[playerCount + 1];
+                if (to > from) {
+                    long start = from * CHUNK_ROUNDS;
+                    long rounds = Math.min(CHUNK_ROUNDS, totalRounds - start);
+                    long[] wins = new long[playerCount];
+                    long ties = GameEngine.simulateRounds(new Dice(streams[from], sides), dicePerPlayer, rounds, wins);
+                    System.arraycopy(wins, 0, totals, 0, playerCount);
+                    totals[playerCount] = ties;
+                }
+                return totals;
+            }
+            int mid = (from + to) >>> 1;
+            ChunkTask left = new ChunkTask(playerCount, sides, dicePerPlayer, totalRounds, streams, from, mid);
+            ChunkTask right = new ChunkTask(playerCount, sides, dicePerPlayer, totalRounds, streams, mid, to);
+            left.fork();
+            long[] totals = right.compute();
+            long[] leftTotals = left.join();
+            for (int i = 0; i < totals.length; i++) {
+                totals[i] += leftTotals[i];
+            }
+            return totals;
+        }
+    }
+}
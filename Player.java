@@ -1,10 +1,16 @@
 public class Player {
     private String name;
     private int wins;
+    private Leaderboard leaderboard;
+    private int boardPosition;
     public Player(String name) {
         this.name = name;
         this.wins = 0;
     }
+    public Player(String name, int wins) {
+        this.name = name;
+        this.wins = wins;
+    }
     public int showWins() {
         return this.wins;
     }
@@ -13,9 +19,29 @@ public class Player {
     }
     public void incrementWin() {
         this.wins++;
+        if (leaderboard != null) {
+            leaderboard.onWin(this, wins - 1);
+        }
     }
     public void resetWins() {
+        int previousWins = wins;
         this.wins = 0;
+        if (leaderboard != null && previousWins > 0) {
+            leaderboard.onReset(this, previousWins);
+        }
+    }
+    // A player reused in another engine leaves its old board first, or that board's buckets go stale.
+    void attachLeaderboard(Leaderboard leaderboard) {
+        if (this.leaderboard != null && this.leaderboard != leaderboard) {
+            this.leaderboard.remove(this);
+        }
+        this.leaderboard = leaderboard;
+    }
+    int getBoardPosition() {
+        return boardPosition;
+    }
+    void setBoardPosition(int boardPosition) {
+        this.boardPosition = boardPosition;
     }
     @Override
     public String toString() {
@@ -0,0 +1,252 @@
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.AbstractList;
+import java.util.List;
+import java.util.function.Consumer;
+public class RoundHistory {
+    public static final int DEFAULT_CAPACITY = 10_000;
+    // Caps the stored rolls so very wide tables keep fewer rounds instead of reserving gigabytes.
+    public static final int MAX_STORED_ROLLS = 1 << 24;
+    public enum OverflowPolicy { DISCARD, SPILL_TO_DISK }
+    private List<Player> players;
+    private int playerCount;
+    private int capacity;
+    private int[] roundNumbers;
+    private int[] winners;
+    private short[] rolls;
+    // Used instead of rolls when the largest possible roll does not fit in 16 bits.
+    private int[] wideRolls;
+    private int[] scratch;
+    private int head;
+    private int size;
+    private OverflowPolicy policy;
+    private String spillFile;
+    private DataOutputStream spill;
+    private long spilledRounds;
+    private long recordedRounds;
+    public RoundHistory(List<Player> players, int capacity) {
+        this(players, capacity, OverflowPolicy.DISCARD, null, Integer.MAX_VALUE);
+    }
+    public RoundHistory(List<Player> players, int capacity, OverflowPolicy policy, String spillFile) {
+        this(players, capacity, policy, spillFile, Integer.MAX_VALUE);
+    }
+    // maxRoll picks the storage: rolls up to 65535 take two bytes each, larger ones four.
+    public RoundHistory(List<Player> players, int capacity, OverflowPolicy policy, String spillFile, int maxRoll) {
+        if (capacity < 0) {
+            throw new IllegalArgumentException("Capacity must not be negative: " + capacity);
+        }
+        if (policy == OverflowPolicy.SPILL_TO_DISK && spillFile == null) {
+            throw new IllegalArgumentException("SPILL_TO_DISK needs a spill file");
+        }
+        this.players = players;
+        this.playerCount = players.size();
+        this.capacity = playerCount == 0 ? capacity : Math.min(capacity, MAX_STORED_ROLLS / playerCount);
+        this.roundNumbers = new int[this.capacity];
+        this.winners = new int[this.capacity];
+        if (maxRoll > 0xFFFF) {
+            this.wideRolls = new int[this.capacity * playerCount];
+        } else {
+            this.rolls = new short[this.capacity * playerCount];
+        }
+        this.scratch = new int[playerCount];
+        this.policy = policy;
+        this.spillFile = spillFile;
+    }
+    // winnerIndex is -1 for a tie.
+    public void record(int roundNumber, int[] roundRolls, int winnerIndex) {
+        recordedRounds++;
+        if (capacity == 0) {
+            spillRecord(roundNumber, roundRolls, winnerIndex);
+            return;
+        }
+        int slot = head;
+        if (size == capacity) {
+            evict(slot);
+        } else {
+            size++;
+        }
+        roundNumbers[slot] = roundNumber;
+        winners[slot] = winnerIndex;
+        int base = slot * playerCount;
+        for (int i = 0; i < playerCount; i++) {
+            store(base + i, roundRolls[i]);
+        }
+        head = slot + 1 == capacity ? 0 : slot + 1;
+    }
+    private void store(int index, int roll) {
+        if (wideRolls != null) {
+            wideRolls[index] = roll;
+        } else {
+            rolls[index] = (short) checkNarrow(roll);
+        }
+    }
+    private static int checkNarrow(int roll) {
+        if ((roll & ~0xFFFF) != 0) {
+            throw new IllegalArgumentException("Roll " + roll + " is larger than this history was sized for");
+        }
+        return roll;
+    }
+    private int load(int index) {
+        return wideRolls != null ? wideRolls[index] : rolls[index] & 0xFFFF;
+    }
+    private void evict(int slot) {
+        if (policy != OverflowPolicy.SPILL_TO_DISK) return;
+        int base = slot * playerCount;
+        for (int i = 0; i < playerCount; i++) {
+            scratch[i] = load(base + i);
+        }
+        spillRecord(roundNumbers[slot], scratch, winners[slot]);
+    }
+    private void spillRecord(int roundNumber, int[] roundRolls, int winnerIndex) {
+        if (policy != OverflowPolicy.SPILL_TO_DISK) return;
+        try {
+            DataOutputStream out = spillStream();
+            out.writeInt(roundNumber);
+            out.writeInt(winnerIndex);
+            for (int i = 0; i < playerCount; i++) {
+                if (wideRolls != null) {
+                    out.writeInt(roundRolls[i]);
+                } else {
+                    out.writeShort(checkNarrow(roundRolls[i]));
+                }
+            }
+            spilledRounds++;
+        } catch (IOException e) {
+            System.err.println("Error spilling round history: " + e.getMessage());
+        }
+    }
+    public void spillTo(String spillFile) {
+        closeSpill();
+        this.policy = OverflowPolicy.SPILL_TO_DISK;
+        this.spillFile = spillFile;
+        this.spilledRounds = 0;
+    }
+    private DataOutputStream spillStream() throws IOException {
+        if (spill == null) {
+            spill = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(spillFile)));
+        }
+        return spill;
+    }
+    public int size() {
+        return size;
+    }
+    public int getCapacity() {
+        return capacity;
+    }
+    public long getSpilledRounds() {
+        return spilledRounds;
+    }
+    public long getRecordedRounds() {
+        return recordedRounds;
+    }
+    // Rounds recorded since the last clear that are neither in memory nor in the spill file.
+    public long getDiscardedRounds() {
+        return recordedRounds - spilledRounds - size;
+    }
+    public int getRoundNumber(int index) {
+        return roundNumbers[slot(index)];
+    }
+    public int getWinnerIndex(int index) {
+        return winners[slot(index)];
+    }
+    public int getRoll(int index, int playerIndex) {
+        return load(slot(index) * playerCount + playerIndex);
+    }
+    // index 0 is the oldest round still held in memory
+    private int slot(int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("Index " + index + " out of bounds for history of " + size);
+        }
+        int slot = head - size + index;
+        return slot < 0 ? slot + capacity : slot;
+    }
+    public String format(int index) {
+        int slot = slot(index);
+        int[] roundRolls = new int[playerCount];
+        int base = slot * playerCount;
+        for (int i = 0; i < playerCount; i++) {
+            roundRolls[i] = load(base + i);
+        }
+        return formatRound(roundNumbers[slot], roundRolls, winners[slot]);
+    }
+    public String formatRound(int roundNumber, int[] roundRolls, int winnerIndex) {
+        StringBuilder roundLog = new StringBuilder();
+        roundLog.append("Round ").append(roundNumber).append(": ");
+        int highestRoll = 0;
+        for (int i = 0; i < playerCount; i++) {
+            roundLog.append(players.get(i).showName()).append(" rolled ").append(roundRolls[i]).append(", ");
+            highestRoll = Math.max(highestRoll, roundRolls[i]);
+        }
+        if (winnerIndex >= 0) {
+            roundLog.append(" Winner: ").append(players.get(winnerIndex).showName());
+        } else {
+            roundLog.append(" Tie between: ");
+            boolean first = true;
+            for (int i = 0; i < playerCount; i++) {
+                if (roundRolls[i] != highestRoll) continue;
+                if (!first) roundLog.append(", ");
+                roundLog.append(players.get(i).showName());
+                first = false;
+            }
+        }
+        return roundLog.toString();
+    }
+    // Read-only view that formats each line on access.
+    public List<String> asLog() {
+        return new AbstractList<String>() {
+            @Override
+            public String get(int index) {
+                return format(index);
+            }
+            @Override
+            public int size() {
+                return size;
+            }
+        };
+    }
+    // Streams every recorded round, spilled ones first, formatting as it goes.
+    public void forEachLine(Consumer<String> sink) throws IOException {
+        if (spill != null) {
+            spill.flush();
+            try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(spillFile)))) {
+                int[] roundRolls = new int[playerCount];
+                for (long r = 0; r < spilledRounds; r++) {
+                    int roundNumber = in.readInt();
+                    int winnerIndex = in.readInt();
+                    for (int i = 0; i < playerCount; i++) {
+                        roundRolls[i] = wideRolls != null ? in.readInt() : in.readShort() & 0xFFFF;
+                    }
+                    sink.accept(formatRound(roundNumber, roundRolls, winnerIndex));
+                }
+            } catch (EOFException e) {
+                System.err.println("Spill file " + spillFile + " is truncated");
+            }
+        }
+        for (int i = 0; i < size; i++) {
+            sink.accept(format(i));
+        }
+    }
+    public void clear() {
+        head = 0;
+        size = 0;
+        spilledRounds = 0;
+        recordedRounds = 0;
+        closeSpill();
+    }
+    public void closeSpill() {
+        if (spill != null) {
+            try {
+                spill.close();
+            } catch (IOException e) {
+                System.err.println("Error closing spill file: " + e.getMessage());
+            }
+            spill = null;
+        }
+    }
+}
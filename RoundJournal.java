@@ -0,0 +1,291 @@
+import java.io.BufferedInputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+// Binary layout: header = "DGJ1", u16 version, u32 sides, u32 dice per player, name of the Dice.Rng
+// (empty when unknown; not in version 1), u32 player count, then each player's name. Names are a
+// varint length + UTF-8 (a u16 length before version 3). Each round is varint(body length) followed
+// by varint round number, varint (winner index + 1, 0 for a tie) and one varint roll per player.
+public class RoundJournal implements Closeable {
+    static final int MAGIC = 0x44474A31;
+    static final int VERSION = 3;
+    // Rounds are handed to the OS in batches; a process crash loses at most this many, an OS crash
+    // whatever the sync policy has not forced to disk yet.
+    public static final int DEFAULT_FLUSH_EVERY = 64;
+    private static final int BUFFER_SIZE = 64 * 1024;
+    private String path;
+    private FileChannel channel;
+    private ByteBuffer buffer;
+    private int playerCount;
+    private int flushEvery;
+    private int syncEvery;
+    private int unflushed;
+    private int unsynced;
+    private long rounds;
+    private RoundJournal(String path, FileChannel channel, int playerCount) {
+        this.path = path;
+        this.channel = channel;
+        this.playerCount = playerCount;
+        this.buffer = ByteBuffer.allocateDirect(Math.max(BUFFER_SIZE, 2 * maxRecordSize(playerCount)));
+        this.flushEvery = DEFAULT_FLUSH_EVERY;
+        this.syncEvery = 0;
+    }
+    // rng may be null when the generator is not one of Dice.Rng.
+    public static RoundJournal create(String path, List<Player> players, int sides, int dicePerPlayer, Dice.Rng rng) throws IOException {
+        FileChannel channel = FileChannel.open(Paths.get(path), StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+        RoundJournal journal = new RoundJournal(path, channel, players.size());
+        ByteBuffer header = journal.buffer;
+        header.putInt(MAGIC);
+        header.putShort((short) VERSION);
+        header.putInt(sides);
+        header.putInt(dicePerPlayer);
+        journal.putString(rng != null ? rng.name() : "");
+        if (header.remaining() < 4) {
+            journal.writeBuffer();
+        }
+        header.putInt(players.size());
+        for (Player player : players) {
+            journal.putString(player.showName());
+        }
+        journal.flush();
+        return journal;
+    }
+    // Strings longer than the buffer go out in several writes.
+    private void putString(String value) throws IOException {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        if (buffer.remaining() < 5) {
+            writeBuffer();
+        }
+        putVarint(buffer, bytes.length);
+        for (int offset = 0; offset < bytes.length; ) {
+            if (!buffer.hasRemaining()) {
+                writeBuffer();
+            }
+            int n = Math.min(buffer.remaining(), bytes.length - offset);
+            buffer.put(bytes, offset, n);
+            offset += n;
+        }
+    }
+    // Reopens an existing journal for appending after its last complete record; a torn tail is cut off.
+    public static RoundJournal openForAppend(String path, int playerCount, long validLength, long rounds) throws IOException {
+        FileChannel channel = FileChannel.open(Paths.get(path), StandardOpenOption.WRITE);
+        channel.truncate(validLength);
+        channel.position(validLength);
+        RoundJournal journal = new RoundJournal(path, channel, playerCount);
+        journal.rounds = rounds;
+        return journal;
+    }
+    public void append(int roundNumber, int[] rolls, int winnerIndex) throws IOException {
+        int bodyLength = varintSize(roundNumber) + varintSize(winnerIndex + 1);
+        for (int i = 0; i < playerCount; i++) {
+            bodyLength += varintSize(rolls[i]);
+        }
+        if (buffer.remaining() < bodyLength + 5) {
+            writeBuffer();
+        }
+        putVarint(buffer, bodyLength);
+        putVarint(buffer, roundNumber);
+        putVarint(buffer, winnerIndex + 1);
+        for (int i = 0; i < playerCount; i++) {
+            putVarint(buffer, rolls[i]);
+        }
+        rounds++;
+        if (++unflushed >= flushEvery) {
+            writeBuffer();
+        }
+        if (syncEvery > 0 && ++unsynced >= syncEvery) {
+            sync();
+        }
+    }
+    private void writeBuffer() throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        buffer.clear();
+        unflushed = 0;
+    }
+    public void flush() throws IOException {
+        if (buffer.position() > 0) {
+            writeBuffer();
+        }
+    }
+    public void sync() throws IOException {
+        flush();
+        channel.force(false);
+        unsynced = 0;
+    }
+    public long position() throws IOException {
+        return channel.position() + buffer.position();
+    }
+    // Number of rounds buffered before they are handed to the OS; 1 writes every round through.
+    // Defaults to DEFAULT_FLUSH_EVERY.
+    public void setFlushEvery(int rounds) {
+        this.flushEvery = Math.max(1, rounds);
+    }
+    // Group commit: fsync after this many rounds; 0 leaves syncing to close().
+    public void setSyncEvery(int rounds) {
+        this.syncEvery = Math.max(0, rounds);
+    }
+    public String getPath() {
+        return path;
+    }
+    public long getRounds() {
+        return rounds;
+    }
+    @Override
+    public void close() throws IOException {
+        if (channel.isOpen()) {
+            sync();
+            channel.close();
+        }
+    }
+    static int maxRecordSize(int playerCount) {
+        return 5 + 5 + 5 + 5 * playerCount;
+    }
+    static int varintSize(int value) {
+        int size = 1;
+        while ((value & ~0x7F) != 0) {
+            value >>>= 7;
+            size++;
+        }
+        return size;
+    }
+    static void putVarint(ByteBuffer buffer, int value) {
+        while ((value & ~0x7F) != 0) {
+            buffer.put((byte) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        buffer.put((byte) value);
+    }
+    public static class Reader implements Closeable {
+        private DataInputStream in;
+        private String[] names;
+        private int sides;
+        private int dicePerPlayer;
+        private Dice.Rng rng;
+        private long position;
+        private int roundNumber;
+        private int winnerIndex;
+        private int[] rolls;
+        public Reader(String path) throws IOException {
+            this(path, 0);
+        }
+        // Opens the journal and skips ahead to a record boundary previously reported by getPosition().
+        public Reader(String path, long startPosition) throws IOException {
+            in = new DataInputStream(new BufferedInputStream(new FileInputStream(path), BUFFER_SIZE));
+            if (in.readInt() != MAGIC) {
+                in.close();
+                throw new IOException(path + " is not a round journal");
+            }
+            int version = in.readUnsignedShort();
+            if (version < 1 || version > VERSION) {
+                in.close();
+                throw new IOException("Unsupported journal version " + version);
+            }
+            sides = in.readInt();
+            dicePerPlayer = in.readInt();
+            position = 18;
+            if (version >= 2) {
+                String rngName = readString(version);
+                try {
+                    rng = rngName.isEmpty() ? null : Dice.Rng.valueOf(rngName);
+                } catch (IllegalArgumentException e) {
+                    rng = null;
+                }
+            }
+            names = new String[in.readInt()];
+            for (int i = 0; i < names.length; i++) {
+                names[i] = readString(version);
+            }
+            rolls = new int[names.length];
+            if (startPosition > position) {
+                long remaining = startPosition - position;
+                while (remaining > 0) {
+                    long skipped = in.skip(remaining);
+                    if (skipped <= 0) {
+                        in.close();
+                        throw new EOFException("Journal is shorter than offset " + startPosition);
+                    }
+                    remaining -= skipped;
+                }
+                position = startPosition;
+            }
+        }
+        // Advances to the next complete record; returns false at the end or at a torn trailing record.
+        public boolean next() throws IOException {
+            try {
+                int bodyLength = readVarint();
+                // A length no record could have means a torn or corrupt tail, not a huge record.
+                if (bodyLength < 2 + rolls.length || bodyLength > maxRecordSize(rolls.length) - 5) {
+                    return false;
+                }
+                int headerLength = varintSize(bodyLength);
+                byte[] body = new byte[bodyLength];
+                in.readFully(body);
+                ByteBuffer record = ByteBuffer.wrap(body);
+                roundNumber = getVarint(record);
+                winnerIndex = getVarint(record) - 1;
+                for (int i = 0; i < rolls.length; i++) {
+                    rolls[i] = getVarint(record);
+                }
+                position += headerLength + bodyLength;
+                return true;
+            } catch (EOFException | BufferUnderflowException | IllegalStateException e) {
+                return false;
+            }
+        }
+        private String readString(int version) throws IOException {
+            int length = version >= 3 ? readVarint() : in.readUnsignedShort();
+            if (length < 0) {
+                throw new IOException("Malformed string in journal header");
+            }
+            byte[] bytes = new byte[length];
+            in.readFully(bytes);
+            position += (version >= 3 ? varintSize(length) : 2) + length;
+            return new String(bytes, StandardCharsets.UTF_8);
+        }
+        // -1 for a varint longer than five bytes.
+        private int readVarint() throws IOException {
+            int value = 0;
+            for (int shift = 0; shift < 35; shift += 7) {
+                int b = in.readUnsignedByte();
+                value |= (b & 0x7F) << shift;
+                if ((b & 0x80) == 0) return value;
+            }
+            return -1;
+        }
+        public String[] getNames() { return names; }
+        public int getSides() { return sides; }
+        public int getDicePerPlayer() { return dicePerPlayer; }
+        // Null for version 1 journals and generators this build does not know.
+        public Dice.Rng getRng() { return rng; }
+        public int getRoundNumber() { return roundNumber; }
+        public int getWinnerIndex() { return winnerIndex; }
+        public int[] getRolls() { return rolls; }
+        // Byte offset just past the last complete record read.
+        public long getPosition() { return position; }
+        @Override
+        public void close() throws IOException {
+            in.close();
+        }
+    }
+    static int getVarint(ByteBuffer buffer) {
+        int value = 0;
+        for (int shift = 0; shift < 35; shift += 7) {
+            int b = buffer.get() & 0xFF;
+            value |= (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) return value;
+        }
+        throw new IllegalStateException("Malformed varint");
+    }
+}
@@ -0,0 +1,63 @@
+import java.lang.reflect.Method;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicLong;
+// Virtual threads arrived in Java 21. They are looked up reflectively so the project still
+// compiles with plain javac on older JDKs, where callers fall back to platform threads.
+public class Threads {
+    private static final Method OF_VIRTUAL;
+    private static final Method BUILDER_NAME;
+    private static final Method BUILDER_FACTORY;
+    private static final Method THREAD_PER_TASK;
+    static {
+        Method ofVirtual = null;
+        Method name = null;
+        Method factory = null;
+        Method perTask = null;
+        try {
+            Class<?> builder = Class.forName("java.lang.Thread$Builder");
+            ofVirtual = Thread.class.getMethod("ofVirtual");
+            name = builder.getMethod("name", String.class, long.class);
+            factory = builder.getMethod("factory");
+            perTask = Executors.class.getMethod("newThreadPerTaskExecutor", ThreadFactory.class);
+        } catch (ReflectiveOperationException e) {
+            ofVirtual = null;
+        }
+        OF_VIRTUAL = ofVirtual;
+        BUILDER_NAME = name;
+        BUILDER_FACTORY = factory;
+        THREAD_PER_TASK = perTask;
+    }
+    public static boolean virtualThreadsAvailable() {
+        return OF_VIRTUAL != null;
+    }
+    public static ThreadFactory factory(String prefix, boolean virtual) {
+        if (virtual && OF_VIRTUAL != null) {
+            try {
+                Object builder = BUILDER_NAME.invoke(OF_VIRTUAL.invoke(null), prefix, 0L);
+                return (ThreadFactory) BUILDER_FACTORY.invoke(builder);
+            } catch (ReflectiveOperationException e) {
+                System.err.println("Virtual threads unavailable, using platform threads: " + e.getMessage());
+            }
+        }
+        AtomicLong counter = new AtomicLong();
+        return task -> {
+            Thread thread = new Thread(task, prefix + counter.getAndIncrement());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+    // One new thread per task; virtual when the runtime supports it.
+    public static ExecutorService perTaskExecutor(String prefix, boolean virtual) {
+        ThreadFactory factory = factory(prefix, virtual);
+        if (THREAD_PER_TASK != null) {
+            try {
+                return (ExecutorService) THREAD_PER_TASK.invoke(null, factory);
+            } catch (ReflectiveOperationException e) {
+                System.err.println("Falling back to a cached thread pool: " + e.getMessage());
+            }
+        }
+        return Executors.newCachedThreadPool(factory);
+    }
+}
@@ -0,0 +1,114 @@
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+// Runs many independent tables at once, one (virtual) thread per table. Each table owns its own
+// players, dice stream and engine, so nothing mutable is shared until results are merged.
+public class TournamentRunner {
+    private int tables;
+    private int playersPerTable;
+    private int roundsPerTable;
+    private long pacingMillis;
+    private long seed;
+    private Map<String, Long> standings;
+    private LongAdder roundsPlayed;
+    public TournamentRunner(int tables, int playersPerTable, int roundsPerTable, long pacingMillis, long seed) {
+        if (tables < 1 || playersPerTable < 1 || roundsPerTable < 0 || pacingMillis < 0) {
+            throw new IllegalArgumentException("Invalid tournament configuration");
+        }
+        this.tables = tables;
+        this.playersPerTable = playersPerTable;
+        this.roundsPerTable = roundsPerTable;
+        this.pacingMillis = pacingMillis;
+        this.seed = seed;
+        this.standings = new ConcurrentHashMap<>();
+        this.roundsPlayed = new LongAdder();
+    }
+    public Result run() throws InterruptedException {
+        SplittableRandom master = new SplittableRandom(seed);
+        CountDownLatch done = new CountDownLatch(tables);
+        long start = System.nanoTime();
+        ExecutorService executor = Threads.perTaskExecutor("table-", true);
+        try {
+            for (int t = 0; t < tables; t++) {
+                String tableId = "T" + (t + 1);
+                SplittableRandom stream = master.split();
+                executor.execute(() -> {
+                    try {
+                        runTable(tableId, stream);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    } finally {
+                        done.countDown();
+                    }
+                });
+            }
+            done.await();
+        } finally {
+            executor.shutdown();
+            executor.awaitTermination(1, TimeUnit.MINUTES);
+        }
+        return new Result(tables, roundsPlayed.sum(), System.nanoTime() - start, standings);
+    }
+    private void runTable(String tableId, SplittableRandom stream) throws InterruptedException {
+        ArrayList<Player> players = new ArrayList<>();
+        for (int p = 0; p < playersPerTable; p++) {
+            players.add(new Player(tableId + "-P" + (p + 1)));
+        }
+        GameEngine engine = new GameEngine(players, new Dice(stream), 1, 0);
+        engine.setTableId(tableId);
+        for (int r = 0; r < roundsPerTable; r++) {
+            engine.playRound();
+            roundsPlayed.increment();
+            if (pacingMillis > 0) {
+                Thread.sleep(pacingMillis);
+            }
+        }
+        for (Player player : players) {
+            standings.merge(player.showName(), (long) player.showWins(), Long::sum);
+        }
+    }
+    public static class Result {
+        private int tables;
+        private long rounds;
+        private long elapsedNanos;
+        private List<Map.Entry<String, Long>> standings;
+        Result(int tables, long rounds, long elapsedNanos, Map<String, Long> standings) {
+            this.tables = tables;
+            this.rounds = rounds;
+            this.elapsedNanos = elapsedNanos;
+            this.standings = new ArrayList<>(standings.entrySet());
+            this.standings.sort((a, b) -> Long.compare(b.getValue(), a.getValue()));
+        }
+        public int getTables() { return tables; }
+        public long getRounds() { return rounds; }
+        public long getElapsedNanos() { return elapsedNanos; }
+        public double getRoundsPerSecond() { return elapsedNanos == 0 ? 0 : rounds * 1e9 / elapsedNanos; }
+        public List<Map.Entry<String, Long>> getStandings() { return standings; }
+    }
+    public static void main(String[] args) throws InterruptedException {
+        if (args.length < 3) {
+            System.err.println("Usage: java TournamentRunner <tables> <players per table> <rounds per table> [pacing ms] [seed]");
+            System.exit(1);
+        }
+        int tables = Integer.parseInt(args[0]);
+        int players = Integer.parseInt(args[1]);
+        int rounds = Integer.parseInt(args[2]);
+        long pacing = args.length > 3 ? Long.parseLong(args[3]) : 0;
+        long seed = args.length > 4 ? Long.parseLong(args[4]) : System.nanoTime();
+        Result result = new TournamentRunner(tables, players, rounds, pacing, seed).run();
+        System.out.println("Tables: " + result.getTables() + (Threads.virtualThreadsAvailable() ? " (virtual threads)" : " (platform threads)"));
+        System.out.println("Rounds: " + result.getRounds() + " in " + result.getElapsedNanos() / 1_000_000 + " ms");
+        System.out.printf("Throughput: %.0f rounds/s%n", result.getRoundsPerSecond());
+        System.out.println("Top players:");
+        List<Map.Entry<String, Long>> standings = result.getStandings();
+        for (int i = 0; i < Math.min(10, standings.size()); i++) {
+            System.out.println((i + 1) + ". " + standings.get(i).getKey() + " - " + standings.get(i).getValue() + " wins");
+        }
+    }
+}
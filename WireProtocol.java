@@ -0,0 +1,188 @@
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+// Opt-in binary framing for server-to-client traffic. A client asks for it with PROTOCOL:BIN1 after
+// SET_NAME; the server answers with the same text line and every later message is a frame:
+//   varint length | opcode | payload
+// TEXT carries any other protocol line unchanged. PLAYERS sends the roster once per game, so ROUND
+// can refer to players by index: varint round, varint winner+1, varint winner's total wins (only
+// when there is a winner), then one byte per roll in roster order. Commands from the client stay text;
+// servers that predate this ignore the request, so the client keeps reading lines until it sees the ack.
+// It is a command of its own rather than part of SET_NAME because names may contain any character,
+// and an old server would keep a suffix as part of the name instead of ignoring it.
+// Framed clients always get rounds as deltas against the roster, which is resent every
+// GameRoom.KEYFRAME_EVERY rounds and right after a client's full queue drops a delta. Text clients
+// can ask for the same with PROTOCOL:DELTA1: ROSTER assigns each player its index as ID once, then
+// DELTA lines carry only the rolls in ID order and the winner's ID and new win count.
+// PROTOCOL:HB1 tells the server the client answers PING, so it may be evicted once it stops.
+public class WireProtocol {
+    public static final String BINARY_VERSION = "BIN1";
+    public static final String NEGOTIATE = "PROTOCOL:" + BINARY_VERSION;
+    public static final String DELTA_VERSION = "DELTA1";
+    public static final String NEGOTIATE_DELTA = "PROTOCOL:" + DELTA_VERSION;
+    public static final String HEARTBEAT_VERSION = "HB1";
+    public static final String NEGOTIATE_HEARTBEAT = "PROTOCOL:" + HEARTBEAT_VERSION;
+    public static final byte OP_TEXT = 1;
+    public static final byte OP_PLAYERS = 2;
+    public static final byte OP_ROUND = 3;
+    static final int MAX_FRAME = 1 << 24;
+    static final int MAX_LINE = 1 << 20;
+    // line holds UTF-8 text, optionally followed by a newline that is left out of the frame.
+    static byte[] textFrame(byte[] line) {
+        int length = line.length > 0 && line[line.length - 1] == '\n' ? line.length - 1 : line.length;
+        ByteBuffer frame = allocate(1 + length);
+        frame.put(OP_TEXT).put(line, 0, length);
+        return frame.array();
+    }
+    static byte[] playersFrame(List<Player> players) {
+        byte[][] names = new byte[players.size()][];
+        int size = 1 + RoundJournal.varintSize(players.size());
+        for (int i = 0; i < names.length; i++) {
+            names[i] = players.get(i).showName().getBytes(StandardCharsets.UTF_8);
+            size += RoundJournal.varintSize(names[i].length) + names[i].length + RoundJournal.varintSize(players.get(i).showWins());
+        }
+        ByteBuffer frame = allocate(size);
+        frame.put(OP_PLAYERS);
+        RoundJournal.putVarint(frame, names.length);
+        for (int i = 0; i < names.length; i++) {
+            RoundJournal.putVarint(frame, names[i].length);
+            frame.put(names[i]);
+            RoundJournal.putVarint(frame, players.get(i).showWins());
+        }
+        return frame.array();
+    }
+    // Returns null when a roll does not fit in a byte; callers then send the text form instead.
+    static byte[] roundFrame(GameEngine.GameResult result) {
+        ArrayList<Integer> rolls = result.getRolls();
+        int winnerIndex = result.getWinnerIndex();
+        int winnerWins = winnerIndex < 0 ? 0 : result.getPlayers().get(winnerIndex).showWins();
+        int size = 1 + RoundJournal.varintSize(result.getRoundNumber()) + RoundJournal.varintSize(winnerIndex + 1)
+                + (winnerIndex < 0 ? 0 : RoundJournal.varintSize(winnerWins)) + rolls.size();
+        ByteBuffer frame = allocate(size);
+        frame.put(OP_ROUND);
+        RoundJournal.putVarint(frame, result.getRoundNumber());
+        RoundJournal.putVarint(frame, winnerIndex + 1);
+        if (winnerIndex >= 0) {
+            RoundJournal.putVarint(frame, winnerWins);
+        }
+        for (int i = 0; i < rolls.size(); i++) {
+            int roll = rolls.get(i);
+            if (roll < 0 || roll > 0xFF) {
+                return null;
+            }
+            frame.put((byte) roll);
+        }
+        return frame.array();
+    }
+    // Room for the length prefix plus body, positioned after the prefix.
+    private static ByteBuffer allocate(int bodyLength) {
+        ByteBuffer frame = ByteBuffer.allocate(RoundJournal.varintSize(bodyLength) + bodyLength);
+        RoundJournal.putVarint(frame, bodyLength);
+        return frame;
+    }
+    // Decodes a PLAYERS body (after the opcode) into names and wins.
+    static Roster decodePlayers(ByteBuffer body) {
+        int count = RoundJournal.getVarint(body);
+        Roster roster = new Roster(count);
+        for (int i = 0; i < count; i++) {
+            int length = RoundJournal.getVarint(body);
+            roster.names[i] = new String(body.array(), body.arrayOffset() + body.position(), length, StandardCharsets.UTF_8);
+            body.position(body.position() + length);
+            roster.wins[i] = RoundJournal.getVarint(body);
+        }
+        return roster;
+    }
+    // Percent-escapes the characters that delimit text messages, so any name survives ROSTER.
+    static void appendEscaped(StringBuilder out, String name) {
+        for (int i = 0; i < name.length(); i++) {
+            char c = name.charAt(i);
+            if (c == '%' || c == ':' || c == ',' || c == ';' || c == '\n' || c == '\r') {
+                out.append('%').append(Character.forDigit(c >> 4, 16)).append(Character.forDigit(c & 0xF, 16));
+            } else {
+                out.append(c);
+            }
+        }
+    }
+    static String unescape(String escaped) {
+        if (escaped.indexOf('%') < 0) {
+            return escaped;
+        }
+        StringBuilder out = new StringBuilder(escaped.length());
+        for (int i = 0; i < escaped.length(); i++) {
+            char c = escaped.charAt(i);
+            if (c == '%' && i + 2 < escaped.length()) {
+                out.append((char) Integer.parseInt(escaped.substring(i + 1, i + 3), 16));
+                i += 2;
+            } else {
+                out.append(c);
+            }
+        }
+        return out.toString();
+    }
+    // Names and running wins in roster order, as last sent by PLAYERS and updated by each ROUND.
+    static class Roster {
+        final String[] names;
+        final int[] wins;
+        Roster(int count) {
+            this.names = new String[count];
+            this.wins = new int[count];
+        }
+    }
+    // Reads newline-terminated UTF-8 lines until the connection switches to frames, then frames.
+    static class Reader {
+        private final InputStream in;
+        private byte[] buffer = new byte[256];
+        Reader(InputStream in) {
+            this.in = in;
+        }
+        // Returns null at end of stream.
+        String readLine() throws IOException {
+            int length = 0;
+            int b;
+            while ((b = in.read()) != '\n') {
+                if (b < 0) {
+                    if (length == 0) return null;
+                    break;
+                }
+                if (length == buffer.length) {
+                    if (length >= MAX_LINE) throw new IOException("Line too long");
+                    buffer = java.util.Arrays.copyOf(buffer, length * 2);
+                }
+                buffer[length++] = (byte) b;
+            }
+            if (length > 0 && buffer[length - 1] == '\r') length--;
+            return new String(buffer, 0, length, StandardCharsets.UTF_8);
+        }
+        // Returns the frame body starting at the opcode, or null at end of stream.
+        ByteBuffer readFrame() throws IOException {
+            int length = 0;
+            for (int shift = 0; ; shift += 7) {
+                int b = in.read();
+                if (b < 0) {
+                    if (shift == 0) return null;
+                    throw new EOFException("Truncated frame length");
+                }
+                if (shift >= 35) throw new IOException("Malformed frame length");
+                length |= (b & 0x7F) << shift;
+                if ((b & 0x80) == 0) break;
+            }
+            if (length < 1 || length > MAX_FRAME) {
+                throw new IOException("Bad frame length: " + length);
+            }
+            if (length > buffer.length) {
+                buffer = new byte[Math.max(length, buffer.length * 2)];
+            }
+            int read = 0;
+            while (read < length) {
+                int n = in.read(buffer, read, length - read);
+                if (n < 0) throw new EOFException("Truncated frame");
+                read += n;
+            }
+            return ByteBuffer.wrap(buffer, 0, length);
+        }
+    }
+}
@@ -0,0 +1,31 @@
+package dicegame;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.CommandLineOptionException;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.openjdk.jmh.runner.options.TimeValue;
+
+// Runs the suite with the gc profiler on and writes JSON results; extra arguments are passed to JMH.
+public class BenchmarkMain {
+    public static void main(String[] args) throws RunnerException, CommandLineOptionException {
+        CommandLineOptions cli = new CommandLineOptions(args);
+        Options options = new OptionsBuilder()
+                .parent(cli)
+                .include(cli.getIncludes().isEmpty() ? "dicegame\\..*Benchmark" : String.join("|", cli.getIncludes()))
+                .addProfiler(GCProfiler.class)
+                .warmupIterations(cli.getWarmupIterations().orElse(3))
+                .warmupTime(cli.getWarmupTime().orElse(TimeValue.seconds(1)))
+                .measurementIterations(cli.getMeasurementIterations().orElse(5))
+                .measurementTime(cli.getMeasurementTime().orElse(TimeValue.seconds(1)))
+                .forks(cli.getForkCount().orElse(1))
+                .resultFormat(cli.getResultFormat().orElse(ResultFormatType.JSON))
+                .result(cli.getResult().orElse("results.json"))
+                .build();
+        new Runner(options).run();
+    }
+}
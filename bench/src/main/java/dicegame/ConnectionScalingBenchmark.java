@@ -0,0 +1,149 @@
+package dicegame;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicLong;
+// Opens many idle connections against one server mode and reports what they cost: connect time,
+// platform threads, heap and resident memory, and how long one broadcast takes to reach everyone.
+// The clients share a single selector thread so they add almost nothing to the measurement.
+public class ConnectionScalingBenchmark {
+    private static final int BROADCASTS = 5;
+    public static void main(String[] args) throws Exception {
+        if (args.length < 1) {
+            System.err.println("Usage: java -cp target/benchmarks.jar dicegame.ConnectionScalingBenchmark <BLOCKING|VIRTUAL_THREADS|NIO> [connections] [port] [eventLoops]");
+            System.exit(1);
+        }
+        MultiplayerServer.IoMode mode = MultiplayerServer.IoMode.valueOf(args[0].toUpperCase());
+        int connections = args.length > 1 ? Integer.parseInt(args[1]) : 2000;
+        int port = args.length > 2 ? Integer.parseInt(args[2]) : 23456;
+        int eventLoops = args.length > 3 ? Integer.parseInt(args[3]) : 1;
+        long heapBefore = usedHeap();
+        long rssBefore = residentKiloBytes();
+        int threadsBefore = ManagementFactory.getThreadMXBean().getThreadCount();
+        MultiplayerServer server = new MultiplayerServer(port, Dice.Rng.RANDOM, mode);
+        server.setEventLoops(eventLoops);
+        server.start();
+        Selector selector = Selector.open();
+        AtomicLong lines = new AtomicLong();
+        Queue<SocketChannel> registrations = new ConcurrentLinkedQueue<>();
+        Thread drainer = new Thread(() -> drain(selector, registrations, lines), "bench-clients");
+        drainer.setDaemon(true);
+        drainer.start();
+        List<SocketChannel> clients = new ArrayList<>();
+        long start = System.nanoTime();
+        for (int i = 0; i < connections; i++) {
+            SocketChannel channel = SocketChannel.open(new InetSocketAddress("localhost", port));
+            channel.write(ByteBuffer.wrap(("SET_NAME:bench" + i + "\n").getBytes(StandardCharsets.UTF_8)));
+            channel.configureBlocking(false);
+            clients.add(channel);
+            registrations.add(channel);
+            selector.wakeup();
+        }
+        while (server.getClientCount() < connections) {
+            Thread.sleep(10);
+        }
+        long connectNanos = System.nanoTime() - start;
+        awaitQuiet(lines);
+        long heapAfter = usedHeap();
+        long rssAfter = residentKiloBytes();
+        int threadsAfter = ManagementFactory.getThreadMXBean().getThreadCount();
+        // The first broadcast also spins up writer threads; the last one shows the steady state.
+        long enqueueNanos = 0;
+        long broadcastNanos = 0;
+        for (int i = 0; i < BROADCASTS; i++) {
+            long before = lines.get();
+            long broadcastStart = System.nanoTime();
+            server.broadcastMessage("GAME_STATUS:WAITING");
+            enqueueNanos = System.nanoTime() - broadcastStart;
+            while (lines.get() < before + connections) {
+                Thread.onSpinWait();
+            }
+            broadcastNanos = System.nanoTime() - broadcastStart;
+        }
+        System.out.println("Mode: " + mode.name() + (mode == MultiplayerServer.IoMode.VIRTUAL_THREADS
+                && !Threads.virtualThreadsAvailable() ? " (no virtual threads on this JDK, using platform threads)" : "")
+                + (mode == MultiplayerServer.IoMode.NIO ? " (" + eventLoops + " event loops)" : ""));
+        System.out.println("Connections: " + connections + " in " + connectNanos / 1_000_000 + " ms");
+        System.out.println("Platform threads: " + threadsBefore + " -> " + threadsAfter);
+        System.out.printf("Heap used: %+.1f MB (%.1f KB per connection)%n",
+                (heapAfter - heapBefore) / 1048576.0, (heapAfter - heapBefore) / 1024.0 / connections);
+        if (rssBefore >= 0 && rssAfter >= 0) {
+            System.out.printf("Resident memory: %+.1f MB (%.1f KB per connection)%n",
+                    (rssAfter - rssBefore) / 1024.0, (rssAfter - rssBefore) / (double) connections);
+        }
+        System.out.printf("Broadcast queued in %.2f ms, delivered to all in %.2f ms%n", enqueueNanos / 1e6, broadcastNanos / 1e6);
+        server.stop();
+        System.exit(0);
+    }
+    private static void drain(Selector selector, Queue<SocketChannel> registrations, AtomicLong lines) {
+        ByteBuffer buffer = ByteBuffer.allocateDirect(64 * 1024);
+        try {
+            while (true) {
+                SocketChannel added;
+                while ((added = registrations.poll()) != null) {
+                    added.register(selector, SelectionKey.OP_READ);
+                }
+                selector.select();
+                Iterator<SelectionKey> keys = selector.selectedKeys().iterator();
+                while (keys.hasNext()) {
+                    SelectionKey key = keys.next();
+                    keys.remove();
+                    SocketChannel channel = (SocketChannel) key.channel();
+                    buffer.clear();
+                    if (channel.read(buffer) < 0) {
+                        key.cancel();
+                        continue;
+                    }
+                    buffer.flip();
+                    long count = 0;
+                    while (buffer.hasRemaining()) {
+                        if (buffer.get() == '\n') {
+                            count++;
+                        }
+                    }
+                    lines.addAndGet(count);
+                }
+            }
+        } catch (IOException e) {
+            System.err.println("Client selector failed: " + e.getMessage());
+        }
+    }
+    private static void awaitQuiet(AtomicLong lines) throws InterruptedException {
+        long last;
+        do {
+            last = lines.get();
+            Thread.sleep(250);
+        } while (lines.get() != last);
+    }
+    private static long usedHeap() {
+        System.gc();
+        Runtime runtime = Runtime.getRuntime();
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+    // VmRSS from /proc on Linux, -1 elsewhere.
+    private static long residentKiloBytes() {
+        try {
+            for (String line : Files.readAllLines(Paths.get("/proc/self/status"))) {
+                if (line.startsWith("VmRSS:")) {
+                    return Long.parseLong(line.replaceAll("[^0-9]", ""));
+                }
+            }
+        } catch (IOException | RuntimeException e) {
+            return -1;
+        }
+        return -1;
+    }
+}
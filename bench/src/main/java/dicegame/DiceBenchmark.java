@@ -0,0 +1,42 @@
+package dicegame;
+
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class DiceBenchmark {
+    static final int BLOCK_FACES = 1024;
+
+    @Param({"RANDOM", "SPLITTABLE", "THREAD_LOCAL", "L64X128", "XOSHIRO256"})
+    public String rng;
+
+    private Dice dice;
+    private final int[] faces = new int[BLOCK_FACES];
+
+    @Setup
+    public void setUp() {
+        Dice.Rng kind = Dice.Rng.valueOf(rng);
+        dice = kind.isSeedable() ? new Dice(kind, 42L) : new Dice(kind);
+    }
+
+    @Benchmark
+    public int roll() {
+        return dice.roll();
+    }
+
+    // One op is BLOCK_FACES faces; divide the score by it to compare with roll().
+    @Benchmark
+    public int[] rollInto() {
+        dice.rollInto(faces, 0, BLOCK_FACES);
+        return faces;
+    }
+}
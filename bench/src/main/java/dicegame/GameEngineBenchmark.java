@@ -0,0 +1,45 @@
+package dicegame;
+
+import java.util.ArrayList;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class GameEngineBenchmark {
+    @Param({"2", "10", "1000", "100000"})
+    public int players;
+
+    private GameEngine engine;
+    private MassRoundEngine massEngine;
+
+    @Setup
+    public void setUp() {
+        ArrayList<Player> list = new ArrayList<>(players);
+        String[] names = new String[players];
+        for (int i = 0; i < players; i++) {
+            names[i] = "P" + i;
+            list.add(new Player(names[i]));
+        }
+        engine = new GameEngine(list, new Dice(Dice.Rng.SPLITTABLE, 42L));
+        massEngine = new MassRoundEngine(names, 42L);
+    }
+
+    @Benchmark
+    public GameEngine.GameResult playRound() {
+        return engine.playRound();
+    }
+
+    @Benchmark
+    public int massPlayRound() {
+        return massEngine.playRound().getWinnerIndex();
+    }
+}
@@ -0,0 +1,88 @@
+package dicegame;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+// Covers the round result the server broadcasts and the client parses every round, as a full text line,
+// a text delta and a binary frame.
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class ProtocolBenchmark {
+    @Param({"2", "10", "1000"})
+    public int players;
+
+    private GameEngine.GameResult result;
+    private String payload;
+    private String delta;
+    private WireProtocol.Roster textRoster;
+    private byte[] frame;
+    private WireProtocol.Roster roster;
+
+    @Setup
+    public void setUp() {
+        ArrayList<Player> list = new ArrayList<>(players);
+        for (int i = 0; i < players; i++) {
+            list.add(new Player("Player" + i));
+        }
+        GameEngine engine = new GameEngine(list, new Dice(Dice.Rng.SPLITTABLE, 42L));
+        for (int i = 0; i < 100; i++) {
+            engine.playRound();
+        }
+        result = engine.playRound();
+        String line = MultiplayerServer.encodeRoundResult(result);
+        payload = line.substring("ROUND_RESULT:".length());
+        delta = MultiplayerServer.encodeDelta(result).substring("DELTA:".length());
+        textRoster = MultiplayerClient.parseRoster(MultiplayerServer.encodeRoster(engine.getPlayers()).substring("ROSTER:".length()));
+        frame = WireProtocol.roundFrame(result);
+        roster = WireProtocol.decodePlayers(body(WireProtocol.playersFrame(engine.getPlayers())));
+    }
+
+    // Skips the length prefix and opcode, as the client's reader and dispatch do.
+    private static ByteBuffer body(byte[] frame) {
+        ByteBuffer buffer = ByteBuffer.wrap(frame);
+        RoundJournal.getVarint(buffer);
+        buffer.get();
+        return buffer;
+    }
+
+    @Benchmark
+    public String encodeRoundResult() {
+        return MultiplayerServer.encodeRoundResult(result);
+    }
+
+    @Benchmark
+    public MultiplayerClient.RoundResult decodeRoundResult() {
+        return MultiplayerClient.parseRoundResult(payload);
+    }
+
+    @Benchmark
+    public String encodeDelta() {
+        return MultiplayerServer.encodeDelta(result);
+    }
+
+    @Benchmark
+    public MultiplayerClient.RoundResult decodeDelta() {
+        return MultiplayerClient.parseDelta(delta, textRoster);
+    }
+
+    @Benchmark
+    public byte[] encodeRoundFrame() {
+        return WireProtocol.roundFrame(result);
+    }
+
+    @Benchmark
+    public MultiplayerClient.RoundResult decodeRoundFrame() throws IOException {
+        return MultiplayerClient.decodeRoundFrame(body(frame), roster);
+    }
+}
@@ -0,0 +1,31 @@
+package dicegame;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import org.junit.jupiter.api.Test;
+
+class BatchRunnerTest {
+    @Test
+    void fixedSeedAndThreadsGiveTheSameTotals() throws InterruptedException {
+        BatchRunner.Result first = new BatchRunner(4, 20_001, 99L, 3, Dice.Rng.SPLITTABLE).run();
+        BatchRunner.Result second = new BatchRunner(4, 20_001, 99L, 3, Dice.Rng.SPLITTABLE).run();
+        long total = first.getTies();
+        for (int seat = 0; seat < 4; seat++) {
+            assertEquals(first.getWins(seat), second.getWins(seat));
+            total += first.getWins(seat);
+        }
+        assertEquals(first.getTies(), second.getTies());
+        assertEquals(20_001, total);
+    }
+
+    @Test
+    void outOfRangeConfigurationsAreRejected() {
+        assertThrows(IllegalArgumentException.class, () -> new BatchRunner(0, 10, 1L, 1, Dice.Rng.SPLITTABLE));
+        assertThrows(IllegalArgumentException.class, () -> new BatchRunner(2, 10, 1L, 0, Dice.Rng.SPLITTABLE));
+        assertThrows(IllegalArgumentException.class, () -> new BatchRunner(2, -1, 1L, 1, Dice.Rng.SPLITTABLE));
+        assertThrows(IllegalArgumentException.class,
+                () -> new BatchRunner(2, 2L * Integer.MAX_VALUE + 1, 1L, 2, Dice.Rng.SPLITTABLE));
+        new BatchRunner(2, 2L * Integer.MAX_VALUE, 1L, 2, Dice.Rng.SPLITTABLE);
+    }
+}
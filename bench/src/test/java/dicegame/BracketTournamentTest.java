@@ -0,0 +1,98 @@
+package dicegame;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+import org.junit.jupiter.api.Test;
+
+class BracketTournamentTest {
+    private static BracketTournament bracket(int entrants, int matchSize, long seed) {
+        return new BracketTournament(entrants, matchSize, 3, BracketTournament.TieBreak.REROLL, seed, ForkJoinPool.commonPool());
+    }
+
+    @Test
+    void nonPowerOfTwoFieldsGetOneByePerLevel() {
+        int[][] cases = {{5, 2}, {6, 2}, {7, 2}, {11, 2}, {4, 3}, {10, 3}};
+        for (int[] c : cases) {
+            int entrants = c[0];
+            int matchSize = c[1];
+            BracketTournament tournament = bracket(entrants, matchSize, entrants * 31L + matchSize);
+            int champion = tournament.runSingleElimination();
+            int expectedLevels = 0;
+            for (long reach = 1; reach < entrants; reach *= matchSize) {
+                expectedLevels++;
+            }
+            assertEquals(expectedLevels, tournament.getLevels().size(), entrants + " entrants, " + matchSize + " per match");
+            int fieldSize = entrants;
+            for (BracketTournament.Level level : tournament.getLevels()) {
+                assertEquals((fieldSize + matchSize - 1) / matchSize, level.getMatchCount());
+                Set<Integer> seen = new HashSet<>();
+                int byes = 0;
+                for (int m = 0; m < level.getMatchCount(); m++) {
+                    int[] group = level.getEntrants(m);
+                    for (int entrant : group) {
+                        assertTrue(seen.add(entrant));
+                    }
+                    int winner = level.getWinner(m);
+                    assertTrue(Arrays.stream(group).anyMatch(e -> e == winner));
+                    if (group.length == 1) {
+                        byes++;
+                        assertEquals(0, level.getRounds(m));
+                    }
+                }
+                assertEquals(fieldSize, seen.size());
+                assertTrue(byes <= 1);
+                fieldSize = level.getMatchCount();
+            }
+            assertEquals(1, fieldSize);
+            assertTrue(champion >= 1 && champion <= entrants);
+        }
+    }
+
+    @Test
+    void namedEntrantsNeedNoNumericNames() {
+        String[] names = {"alice", "bob", "carl", "dora", "erin"};
+        // Best of 2 ends level often enough that the seed tie break decides some matches.
+        BracketTournament tournament = new BracketTournament(names, 2, 2, BracketTournament.TieBreak.HIGHER_SEED, 3L, ForkJoinPool.commonPool());
+        int champion = tournament.runSingleElimination();
+        assertTrue(Arrays.asList(names).contains(tournament.getName(champion)));
+        int[] standings = tournament.runSwiss(3);
+        assertEquals(names.length, standings.length);
+    }
+
+    @Test
+    void pairingBacksOffToAvoidARematch() {
+        BracketTournament tournament = bracket(4, 2, 1L);
+        BracketTournament.Meetings met = new BracketTournament.Meetings(4, 1);
+        met.add(3, 4);
+        assertArrayEquals(new int[] {1, 3, 2, 4}, tournament.swissPairing(new int[] {1, 2, 3, 4}, met));
+        met.add(1, 3);
+        assertArrayEquals(new int[] {1, 4, 2, 3}, tournament.swissPairing(new int[] {1, 2, 3, 4}, met));
+    }
+
+    @Test
+    void swissRoundsNeverRepeatAPairing() {
+        int[][] cases = {{16, 2, 5}, {9, 2, 4}, {12, 3, 3}};
+        for (int[] c : cases) {
+            BracketTournament tournament = bracket(c[0], c[1], 17L);
+            tournament.runSwiss(c[2]);
+            Set<Long> met = new HashSet<>();
+            for (BracketTournament.Level level : tournament.getLevels()) {
+                for (int m = 0; m < level.getMatchCount(); m++) {
+                    int[] group = level.getEntrants(m);
+                    for (int i = 0; i < group.length; i++) {
+                        for (int j = i + 1; j < group.length; j++) {
+                            long key = ((long) Math.min(group[i], group[j]) << 32) | Math.max(group[i], group[j]);
+                            assertTrue(met.add(key), "rematch of " + group[i] + " and " + group[j]);
+                        }
+                    }
+                }
+            }
+        }
+    }
+}
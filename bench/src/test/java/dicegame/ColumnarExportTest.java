@@ -0,0 +1,63 @@
+package dicegame;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class ColumnarExportTest {
+    @TempDir
+    Path dir;
+
+    @Test
+    void exportMatchesTheJournal() throws IOException {
+        String longName = "x".repeat(70_000);
+        ArrayList<Player> players = new ArrayList<>();
+        players.add(new Player("alice"));
+        players.add(new Player(longName));
+        players.add(new Player("carl"));
+        String journal = dir.resolve("game.journal").toString();
+        GameEngine engine = new GameEngine(players, new Dice(Dice.Rng.SPLITTABLE, 21L), 2);
+        engine.openJournal(journal);
+        int rounds = ColumnarExport.MAX_BLOCK_ROUNDS + 1000;
+        for (int i = 0; i < rounds; i++) {
+            engine.playRound();
+        }
+        engine.closeJournal();
+
+        long[] wins = new long[4];
+        long[][] histograms = new long[3][13];
+        long[] atLeastNine = new long[3];
+        try (RoundJournal.Reader reader = new RoundJournal.Reader(journal)) {
+            while (reader.next()) {
+                int winner = reader.getWinnerIndex();
+                wins[winner < 0 ? 3 : winner]++;
+                for (int p = 0; p < 3; p++) {
+                    int roll = reader.getRolls()[p];
+                    histograms[p][roll]++;
+                    if (roll >= 9) atLeastNine[p]++;
+                }
+            }
+        }
+
+        String columnar = dir.resolve("game.columnar").toString();
+        assertEquals(rounds, ColumnarExport.export(journal, columnar));
+        try (ColumnarReader reader = new ColumnarReader(columnar)) {
+            assertEquals(longName, reader.getNames()[1]);
+            assertEquals(rounds, reader.getRounds());
+            assertTrue(reader.getBlockCount() > 1);
+            assertArrayEquals(wins, reader.winCounts());
+            for (int p = 0; p < 3; p++) {
+                assertArrayEquals(histograms[p], reader.rollHistogram(p));
+                assertEquals(atLeastNine[p], reader.countRollsAtLeast(p, 9));
+                assertEquals(0, reader.countRollsAtLeast(p, 13));
+                assertEquals(rounds, reader.countRollsAtLeast(p, 2));
+            }
+        }
+    }
+}
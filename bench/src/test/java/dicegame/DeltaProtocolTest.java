@@ -0,0 +1,130 @@
+package dicegame;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.Test;
+
+class DeltaProtocolTest {
+    private static GameEngine newEngine(String... names) {
+        ArrayList<Player> players = new ArrayList<>();
+        for (String name : names) {
+            players.add(new Player(name));
+        }
+        return new GameEngine(players, new Dice(Dice.Rng.SPLITTABLE, 5L), 1, 100);
+    }
+
+    private static int[] wins(List<Player> players) {
+        int[] wins = new int[players.size()];
+        for (int i = 0; i < wins.length; i++) {
+            wins[i] = players.get(i).showWins();
+        }
+        return wins;
+    }
+
+    @Test
+    void rosterSurvivesDelimitersInNames() {
+        GameEngine engine = newEngine("al:i,ce", "50%;off", "böb\n");
+        for (int i = 0; i < 20; i++) {
+            engine.playRound();
+        }
+        String line = MultiplayerServer.encodeRoster(engine.getPlayers());
+        assertTrue(line.startsWith("ROSTER:"));
+        WireProtocol.Roster roster = MultiplayerClient.parseRoster(line.substring("ROSTER:".length()));
+        assertArrayEquals(new String[] {"al:i,ce", "50%;off", "böb\n"}, roster.names);
+        assertArrayEquals(wins(engine.getPlayers()), roster.wins);
+    }
+
+    @Test
+    void deltasKeepTheRosterInStepWithTheEngine() {
+        GameEngine engine = newEngine("alice", "bob", "carl");
+        String rosterLine = MultiplayerServer.encodeRoster(engine.getPlayers());
+        WireProtocol.Roster roster = MultiplayerClient.parseRoster(rosterLine.substring("ROSTER:".length()));
+        boolean sawTie = false;
+        for (int i = 0; i < 200; i++) {
+            GameEngine.GameResult result = engine.playRound();
+            String line = MultiplayerServer.encodeDelta(result);
+            MultiplayerClient.RoundResult decoded = MultiplayerClient.parseDelta(line.substring("DELTA:".length()), roster);
+            assertEquals(result.getRoundNumber(), decoded.roundNumber);
+            int[] rolls = result.getRolls().stream().mapToInt(Integer::intValue).toArray();
+            assertArrayEquals(rolls, decoded.rolls);
+            if (result.getWinnerIndex() < 0) {
+                sawTie = true;
+                assertTrue(decoded.tie);
+                assertNull(decoded.winner);
+            } else {
+                assertFalse(decoded.tie);
+                assertEquals(result.getWinner().showName(), decoded.winner);
+            }
+            assertArrayEquals(wins(engine.getPlayers()), roster.wins);
+            assertArrayEquals(roster.wins, decoded.wins);
+        }
+        assertTrue(sawTie);
+    }
+
+    private static void onShard(GameRoom room, Runnable task) throws Exception {
+        CompletableFuture<Void> done = new CompletableFuture<>();
+        room.execute(() -> {
+            task.run();
+            done.complete(null);
+        });
+        done.get(5, TimeUnit.SECONDS);
+    }
+
+    @Test
+    void droppedDeltaIsFollowedByTheRoster() throws Exception {
+        ScheduledExecutorService shard = Executors.newSingleThreadScheduledExecutor();
+        try {
+            GameRoom room = new GameRoom("test", shard, Dice.Rng.SPLITTABLE, null, null, new FloodControl());
+            TestClient alice = new TestClient("alice");
+            TestClient bob = new TestClient("bob",
+                    new OutboundQueue(4, OutboundQueue.SlowConsumerPolicy.COALESCE));
+            bob.enableDeltas();
+            onShard(room, () -> {
+                room.join(alice);
+                room.join(bob);
+                room.startGame();
+            });
+            // Flushes the PLAYER_COUNT announcement the joins queued behind this task.
+            onShard(room, () -> { });
+            alice.lines();
+            bob.lines();
+            long dropped = bob.outbound.getDropped();
+
+            onShard(room, () -> {
+                for (int i = 0; i < 4; i++) {
+                    room.playRound();
+                }
+            });
+            assertEquals(dropped, bob.outbound.getDropped());
+            // Bob is not reading: the next delta is dropped and the roster queued in its place.
+            onShard(room, room::playRound);
+            assertFalse(bob.isDisconnected());
+            assertEquals(dropped + 1, bob.outbound.getDropped());
+            List<String> lines = bob.lines();
+            assertEquals(5, lines.size());
+            assertTrue(lines.get(3).startsWith("DELTA:4;"), lines.get(3));
+            WireProtocol.Roster roster = MultiplayerClient.parseRoster(lines.get(4).substring("ROSTER:".length()));
+
+            List<String> aliceLines = alice.lines();
+            String fifth = aliceLines.get(aliceLines.size() - 1);
+            MultiplayerClient.RoundResult full = MultiplayerClient.parseRoundResult(fifth.substring("ROUND_RESULT:".length()));
+            assertEquals(5, full.roundNumber);
+            assertArrayEquals(full.wins, roster.wins);
+
+            onShard(room, room::playRound);
+            assertTrue(bob.lines().get(0).startsWith("DELTA:6;"));
+        } finally {
+            shard.shutdownNow();
+        }
+    }
+}
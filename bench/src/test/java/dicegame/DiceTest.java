@@ -0,0 +1,81 @@
+package dicegame;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.math.BigInteger;
+import java.util.SplittableRandom;
+import org.junit.jupiter.api.Test;
+
+class DiceTest {
+    private static final BigInteger TWO_POW_63 = BigInteger.ONE.shiftLeft(63);
+
+    @Test
+    void facesPerWordMaximizesAcceptedFacesPerDraw() {
+        for (int sides = 2; sides <= 200; sides++) {
+            int best = 0;
+            double bestScore = 0;
+            BigInteger power = BigInteger.ONE;
+            for (int k = 1; ; k++) {
+                power = power.multiply(BigInteger.valueOf(sides));
+                if (power.compareTo(TWO_POW_63) >= 0) break;
+                BigInteger accepted = TWO_POW_63.divide(power).multiply(power);
+                double score = k * accepted.doubleValue() / TWO_POW_63.doubleValue();
+                if (score > bestScore) {
+                    bestScore = score;
+                    best = k;
+                }
+            }
+            assertEquals(best, new Dice(new SplittableRandom(1), sides).getFacesPerWord(), "sides " + sides);
+        }
+    }
+
+    @Test
+    void sixSidedWordsAreRarelyRejected() {
+        Dice dice = new Dice(new SplittableRandom(1));
+        long bound = 1;
+        for (int i = 0; i < dice.getFacesPerWord(); i++) {
+            bound *= 6;
+        }
+        assertTrue(Dice.acceptance(bound) > 0.99, "acceptance " + Dice.acceptance(bound));
+    }
+
+    @Test
+    void fixedSeedReproducesTheSequence() {
+        for (Dice.Rng rng : Dice.Rng.values()) {
+            if (!rng.isSeedable()) continue;
+            int[] first = new int[1000];
+            int[] second = new int[1000];
+            new Dice(rng, 42L).rollInto(first, 0, first.length);
+            new Dice(rng, 42L).rollInto(second, 0, second.length);
+            assertArrayEquals(first, second, rng.name());
+            Dice a = new Dice(rng, 7L);
+            Dice b = new Dice(rng, 7L);
+            for (int i = 0; i < 100; i++) {
+                assertEquals(a.roll(), b.roll(), rng.name());
+            }
+        }
+    }
+
+    @Test
+    void rollIntoFacesAreUniform() {
+        for (int sides : new int[] {2, 6, 7, 20}) {
+            int[] rolls = new int[600_000];
+            new Dice(Dice.Rng.SPLITTABLE, 123L, sides).rollInto(rolls, 0, rolls.length);
+            long[] counts = new long[sides + 1];
+            for (int roll : rolls) {
+                assertTrue(roll >= 1 && roll <= sides, "roll " + roll);
+                counts[roll]++;
+            }
+            double expected = rolls.length / (double) sides;
+            double chiSquare = 0;
+            for (int face = 1; face <= sides; face++) {
+                double diff = counts[face] - expected;
+                chiSquare += diff * diff / expected;
+            }
+            // Far above the 99.9th percentile for up to 19 degrees of freedom (43.8).
+            assertTrue(chiSquare < 60, "sides " + sides + " chi-square " + chiSquare);
+        }
+    }
+}
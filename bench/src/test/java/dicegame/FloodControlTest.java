@@ -0,0 +1,77 @@
+package dicegame;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.Test;
+
+class FloodControlTest {
+    private static final long START = 1_000_000_000L;
+
+    private static long millis(long millis) {
+        return START + TimeUnit.MILLISECONDS.toNanos(millis);
+    }
+
+    @Test
+    void burstIsAvailableAtOnce() {
+        FloodControl.TokenBucket bucket = new FloodControl.TokenBucket(10, 5, START);
+        for (int i = 0; i < 5; i++) {
+            assertTrue(bucket.tryAcquire(START));
+        }
+        assertFalse(bucket.tryAcquire(START));
+    }
+
+    @Test
+    void tokensRefillAtTheRate() {
+        FloodControl.TokenBucket bucket = new FloodControl.TokenBucket(10, 5, START);
+        for (int i = 0; i < 5; i++) {
+            bucket.tryAcquire(START);
+        }
+        assertFalse(bucket.tryAcquire(millis(99)));
+        assertTrue(bucket.tryAcquire(millis(100)));
+        assertFalse(bucket.tryAcquire(millis(150)));
+        // Fractions carry over between calls.
+        assertTrue(bucket.tryAcquire(millis(200)));
+        int granted = 0;
+        for (int i = 0; i < 10; i++) {
+            if (bucket.tryAcquire(millis(500))) granted++;
+        }
+        assertEquals(3, granted);
+    }
+
+    @Test
+    void refillIsCappedAtTheBurst() {
+        FloodControl.TokenBucket bucket = new FloodControl.TokenBucket(10, 5, START);
+        bucket.tryAcquire(START);
+        int granted = 0;
+        for (int i = 0; i < 20; i++) {
+            if (bucket.tryAcquire(millis(60_000))) granted++;
+        }
+        assertEquals(5, granted);
+    }
+
+    @Test
+    void oneErrorPerRunOfRejections() {
+        FloodControl.TokenBucket bucket = new FloodControl.TokenBucket(10, 1, START);
+        assertTrue(bucket.tryAcquire(START));
+        assertFalse(bucket.tryAcquire(START));
+        assertTrue(bucket.startRejecting());
+        assertFalse(bucket.startRejecting());
+        assertTrue(bucket.tryAcquire(millis(100)));
+        assertFalse(bucket.tryAcquire(millis(100)));
+        assertTrue(bucket.startRejecting());
+    }
+
+    @Test
+    void rateLimitingCanBeTurnedOff() {
+        FloodControl floodControl = new FloodControl();
+        floodControl.setRateLimit(0, 1);
+        assertNull(floodControl.newBucket());
+        assertThrows(IllegalArgumentException.class, () -> floodControl.setRateLimit(10, 0));
+        assertThrows(IllegalArgumentException.class, () -> floodControl.setRollWindowMillis(-1));
+    }
+}
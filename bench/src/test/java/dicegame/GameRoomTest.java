@@ -0,0 +1,116 @@
+package dicegame;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+class GameRoomTest {
+    private final ScheduledExecutorService shard = Executors.newSingleThreadScheduledExecutor();
+
+    @AfterEach
+    void stopShard() {
+        shard.shutdownNow();
+    }
+
+    private static void onShard(GameRoom room, Runnable task) throws Exception {
+        CompletableFuture<Void> done = new CompletableFuture<>();
+        room.execute(() -> {
+            task.run();
+            done.complete(null);
+        });
+        done.get(5, TimeUnit.SECONDS);
+    }
+
+    @Test
+    void mailboxYieldsTheShardAfterABatch() throws Exception {
+        GameRoom room = new GameRoom("test", shard, Dice.Rng.SPLITTABLE, null, null, new FloodControl());
+        List<String> order = Collections.synchronizedList(new ArrayList<>());
+        CountDownLatch release = new CountDownLatch(1);
+        shard.execute(() -> {
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        int commands = 2 * GameRoom.MAX_BATCH + 10;
+        for (int i = 0; i < commands; i++) {
+            int n = i;
+            room.execute(() -> order.add("room-" + n));
+        }
+        shard.execute(() -> order.add("other"));
+        release.countDown();
+        onShard(room, () -> { });
+
+        assertEquals(commands + 1, order.size());
+        assertEquals("other", order.get(GameRoom.MAX_BATCH));
+        order.remove("other");
+        for (int i = 0; i < commands; i++) {
+            assertEquals("room-" + i, order.get(i));
+        }
+    }
+
+    private static long rounds(TestClient client) {
+        return client.lines().stream().filter(line -> line.startsWith("ROUND_RESULT:")).count();
+    }
+
+    private GameRoom startedRoom(FloodControl floodControl, TestClient... clients) throws Exception {
+        GameRoom room = new GameRoom("test", shard, Dice.Rng.SPLITTABLE, null, null, floodControl);
+        onShard(room, () -> {
+            for (TestClient client : clients) {
+                room.join(client);
+            }
+            room.startGame();
+        });
+        return room;
+    }
+
+    @Test
+    void rollsWithinTheWindowShareOneRound() throws Exception {
+        FloodControl floodControl = new FloodControl();
+        floodControl.setRollWindowMillis(50);
+        TestClient alice = new TestClient("alice");
+        TestClient bob = new TestClient("bob");
+        GameRoom room = startedRoom(floodControl, alice, bob);
+        onShard(room, () -> {
+            for (int i = 0; i < 10; i++) {
+                room.handle(i % 2 == 0 ? alice : bob, "ROLL_DICE", null);
+            }
+        });
+        assertEquals(0, rounds(alice));
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        long played = 0;
+        while (played == 0 && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+            played = rounds(alice);
+        }
+        assertEquals(1, played);
+        assertEquals(9, floodControl.getCoalescedRolls());
+        assertTrue(bob.lines().stream().anyMatch(line -> line.startsWith("ROUND_RESULT:1;")));
+    }
+
+    @Test
+    void withoutAWindowEveryRollPlays() throws Exception {
+        FloodControl floodControl = new FloodControl();
+        TestClient alice = new TestClient("alice");
+        TestClient bob = new TestClient("bob");
+        GameRoom room = startedRoom(floodControl, alice, bob);
+        onShard(room, () -> {
+            for (int i = 0; i < 10; i++) {
+                room.handle(alice, "ROLL_DICE", null);
+            }
+        });
+        assertEquals(10, rounds(alice));
+        assertEquals(0, floodControl.getCoalescedRolls());
+    }
+}
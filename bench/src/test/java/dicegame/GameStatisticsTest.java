@@ -0,0 +1,98 @@
+package dicegame;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.concurrent.atomic.AtomicBoolean;
+import org.junit.jupiter.api.Test;
+
+class GameStatisticsTest {
+    private static ArrayList<Player> players(int count) {
+        ArrayList<Player> players = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            players.add(new Player("P" + i));
+        }
+        return players;
+    }
+
+    @Test
+    void countersMatchTheRoundsPlayed() {
+        GameEngine engine = new GameEngine(players(3), new Dice(Dice.Rng.SPLITTABLE, 77L), 1);
+        long[][] histograms = new long[3][7];
+        long[] faces = new long[7];
+        int[] longest = new int[3];
+        long ties = 0;
+        int holder = -1;
+        int streak = 0;
+        for (int round = 0; round < 500; round++) {
+            GameEngine.GameResult result = engine.playRound();
+            for (int p = 0; p < 3; p++) {
+                int roll = result.getRolls().get(p);
+                histograms[p][roll]++;
+                faces[roll]++;
+            }
+            int winner = result.getWinnerIndex();
+            if (winner < 0) {
+                ties++;
+                holder = -1;
+                streak = 0;
+            } else {
+                streak = winner == holder ? streak + 1 : 1;
+                holder = winner;
+                longest[winner] = Math.max(longest[winner], streak);
+            }
+        }
+        GameStatistics.Snapshot stats = engine.getStatistics().snapshot();
+        assertEquals(500, stats.getRounds());
+        assertEquals(ties, stats.getTies());
+        double squares = 0;
+        for (int face = 1; face <= 6; face++) {
+            assertEquals(faces[face], stats.getFaceCount(face));
+            squares += (double) faces[face] * faces[face];
+        }
+        assertEquals(6 * squares / 1500 - 1500, stats.getChiSquare(), 1e-9);
+        for (int p = 0; p < 3; p++) {
+            assertArrayEquals(histograms[p], stats.getRollHistogram(p));
+            assertEquals(longest[p], stats.getLongestStreak(p));
+            assertEquals(p == holder ? streak : 0, stats.getCurrentStreak(p));
+        }
+
+        GameStatistics restored = new GameStatistics(3, 6, 6);
+        assertTrue(restored.restore(stats));
+        GameStatistics.Snapshot copy = restored.snapshot();
+        assertEquals(stats.getRounds(), copy.getRounds());
+        assertEquals(stats.getTies(), copy.getTies());
+        assertEquals(stats.getChiSquare(), copy.getChiSquare());
+        for (int p = 0; p < 3; p++) {
+            assertArrayEquals(stats.getRollHistogram(p), copy.getRollHistogram(p));
+            assertEquals(stats.getLongestStreak(p), copy.getLongestStreak(p));
+            assertEquals(stats.getCurrentStreak(p), copy.getCurrentStreak(p));
+        }
+        assertFalse(new GameStatistics(4, 6, 6).restore(stats));
+    }
+
+    @Test
+    void snapshotsNeverSplitARound() throws InterruptedException {
+        GameEngine engine = new GameEngine(players(4), new Dice(Dice.Rng.SPLITTABLE, 5L), 1);
+        AtomicBoolean done = new AtomicBoolean();
+        Thread game = new Thread(() -> {
+            for (int i = 0; i < 200_000; i++) {
+                engine.playRound();
+            }
+            done.set(true);
+        });
+        game.start();
+        while (!done.get()) {
+            GameStatistics.Snapshot stats = engine.getStatistics().snapshot();
+            long faces = 0;
+            for (int face = 1; face <= 6; face++) {
+                faces += stats.getFaceCount(face);
+            }
+            assertEquals(stats.getRounds() * 4, faces);
+        }
+        game.join();
+    }
+}
@@ -0,0 +1,78 @@
+package dicegame;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class HeartbeatTest {
+    private MultiplayerServer server;
+
+    @BeforeEach
+    void createServer() {
+        server = new MultiplayerServer(0, Dice.Rng.SPLITTABLE, MultiplayerServer.IoMode.BLOCKING, 1);
+        server.setTimeouts(1_000, 3_000, 0);
+    }
+
+    @AfterEach
+    void stopServer() {
+        server.stop();
+    }
+
+    private TestClient connect(String name, boolean heartbeats, long idleMillis) {
+        TestClient client = new TestClient(name);
+        server.addClient(client);
+        if (heartbeats) {
+            server.processMessage(client, WireProtocol.NEGOTIATE_HEARTBEAT);
+        }
+        client.setLastActivity(System.nanoTime() - TimeUnit.MILLISECONDS.toNanos(idleMillis));
+        return client;
+    }
+
+    @Test
+    void negotiationIsAcknowledgedOnce() {
+        TestClient client = new TestClient("alice");
+        server.processMessage(client, WireProtocol.NEGOTIATE_HEARTBEAT);
+        server.processMessage(client, WireProtocol.NEGOTIATE_HEARTBEAT);
+        assertTrue(client.wantsHeartbeats());
+        assertEquals(List.of(WireProtocol.NEGOTIATE_HEARTBEAT), client.lines());
+    }
+
+    @Test
+    void onlyClientsThatNegotiatedArePingedAndEvicted() {
+        TestClient active = connect("active", true, 0);
+        TestClient quiet = connect("quiet", true, 1_500);
+        TestClient gone = connect("gone", true, 5_000);
+        TestClient legacyQuiet = connect("legacyQuiet", false, 1_500);
+        TestClient legacyGone = connect("legacyGone", false, 60_000);
+
+        server.checkHeartbeats();
+
+        // The room's join messages arrive from its shard at any time, so only PINGs are checked.
+        assertFalse(active.lines().contains("PING"));
+        assertTrue(quiet.lines().contains("PING"));
+        assertFalse(quiet.isDisconnected());
+        assertTrue(gone.isDisconnected());
+        for (TestClient legacy : List.of(legacyQuiet, legacyGone)) {
+            assertFalse(legacy.isDisconnected());
+            assertFalse(legacy.lines().contains("PING"));
+        }
+    }
+
+    @Test
+    void answeringAPingKeepsTheClient() {
+        TestClient client = connect("alice", true, 2_500);
+        server.checkHeartbeats();
+        assertTrue(client.lines().contains("PING"));
+        server.processMessage(client, "PONG");
+        client.setLastActivity(client.getLastActivity() - TimeUnit.MILLISECONDS.toNanos(500));
+        server.checkHeartbeats();
+        assertFalse(client.isDisconnected());
+        assertFalse(client.lines().contains("PING"));
+    }
+}
@@ -0,0 +1,107 @@
+package dicegame;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import org.junit.jupiter.api.Test;
+
+class LeaderboardTest {
+    private static void assertConsistent(Leaderboard board, List<Player> players) {
+        for (int i = 0; i < board.size(); i++) {
+            Player player = board.atPosition(i);
+            assertEquals(i, player.getBoardPosition());
+            if (i > 0) {
+                assertTrue(board.atPosition(i - 1).showWins() >= player.showWins(), "order at " + i);
+            }
+        }
+        for (Player player : players) {
+            int better = 0;
+            for (Player other : players) {
+                if (other.showWins() > player.showWins()) better++;
+            }
+            assertEquals(better + 1, board.rankOf(player), player.showName());
+        }
+    }
+
+    @Test
+    void winsAndResetsKeepTheBoardSorted() {
+        List<Player> players = new ArrayList<>();
+        for (int i = 0; i < 50; i++) {
+            players.add(new Player("p" + i));
+        }
+        Leaderboard board = new Leaderboard(players);
+        SplittableRandom random = new SplittableRandom(3);
+        for (int step = 0; step < 5000; step++) {
+            Player player = players.get(random.nextInt(players.size()));
+            if (random.nextInt(40) == 0) {
+                player.resetWins();
+            } else {
+                player.incrementWin();
+            }
+            if (step % 50 == 0) {
+                assertConsistent(board, players);
+            }
+        }
+        assertConsistent(board, players);
+    }
+
+    @Test
+    void resetLeaderDropsToTheBottom() {
+        List<Player> players = List.of(new Player("a"), new Player("b"), new Player("c"));
+        Leaderboard board = new Leaderboard(players);
+        for (int i = 0; i < 3; i++) players.get(0).incrementWin();
+        players.get(1).incrementWin();
+        players.get(0).resetWins();
+        assertEquals(List.of(players.get(1)), board.top(1));
+        assertEquals(2, board.rankOf(players.get(0)));
+        assertEquals(2, board.rankOf(players.get(2)));
+        assertConsistent(board, players);
+    }
+
+    @Test
+    void resetAllLevelsEveryone() {
+        List<Player> players = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            players.add(new Player("p" + i));
+            for (int w = 0; w < i; w++) players.get(i).incrementWin();
+        }
+        Leaderboard board = new Leaderboard(players);
+        board.resetAll();
+        for (Player player : players) {
+            assertEquals(0, player.showWins());
+            assertEquals(1, board.rankOf(player));
+        }
+        players.get(4).incrementWin();
+        assertEquals(List.of(players.get(4)), board.top(1));
+        assertConsistent(board, players);
+    }
+
+    @Test
+    void playerJoiningASecondBoardLeavesTheFirst() {
+        List<Player> first = new ArrayList<>();
+        for (int i = 0; i < 6; i++) {
+            first.add(new Player("p" + i));
+            for (int w = 0; w < i % 4; w++) first.get(i).incrementWin();
+        }
+        Leaderboard old = new Leaderboard(first);
+        Player moved = first.get(3);
+        List<Player> second = List.of(moved, new Player("q"));
+        Leaderboard board = new Leaderboard(second);
+
+        List<Player> stayed = new ArrayList<>(first);
+        stayed.remove(moved);
+        assertEquals(5, old.size());
+        assertConsistent(old, stayed);
+        SplittableRandom random = new SplittableRandom(9);
+        for (int step = 0; step < 200; step++) {
+            moved.incrementWin();
+            stayed.get(random.nextInt(stayed.size())).incrementWin();
+        }
+        assertConsistent(old, stayed);
+        assertConsistent(board, second);
+        assertEquals(List.of(moved), board.top(1));
+    }
+}
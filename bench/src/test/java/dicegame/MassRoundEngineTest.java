@@ -0,0 +1,51 @@
+package dicegame;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+import java.util.ArrayList;
+import org.junit.jupiter.api.Test;
+
+class MassRoundEngineTest {
+    @Test
+    void winnerIsTheSamePlayerObjectThatWasPassedIn() {
+        ArrayList<Player> players = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            players.add(new Player("P" + i));
+        }
+        MassRoundEngine engine = MassRoundEngine.fromPlayers(players, 9L);
+        int decided = 0;
+        for (int round = 0; round < 50; round++) {
+            MassRoundEngine.RoundView view = engine.playRound();
+            assertSame(players.get(0), view.getPlayers().get(0));
+            if (view.getWinnerIndex() >= 0) {
+                assertSame(players.get(view.getWinnerIndex()), view.getWinner());
+                decided++;
+            }
+        }
+        int total = 0;
+        for (int i = 0; i < players.size(); i++) {
+            assertEquals(engine.getWins(i), players.get(i).showWins());
+            total += players.get(i).showWins();
+        }
+        assertEquals(decided, total);
+    }
+
+    @Test
+    void playersBuiltFromNamesStayInStepWithTheEngine() {
+        MassRoundEngine engine = new MassRoundEngine(new String[] {"a", "b", "c"}, 4L);
+        engine.playRound();
+        ArrayList<Player> players = engine.getPlayers();
+        for (int round = 0; round < 30; round++) {
+            MassRoundEngine.RoundView view = engine.playRound();
+            assertSame(players, view.getPlayers());
+        }
+        for (int i = 0; i < 3; i++) {
+            assertEquals(engine.getWins(i), players.get(i).showWins());
+        }
+        engine.resetGame();
+        for (Player player : players) {
+            assertEquals(0, player.showWins());
+        }
+    }
+}
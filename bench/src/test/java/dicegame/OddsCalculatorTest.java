@@ -0,0 +1,60 @@
+package dicegame;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.concurrent.ForkJoinPool;
+import org.junit.jupiter.api.Test;
+
+class OddsCalculatorTest {
+    private static final double EXACT = 1e-12;
+
+    @Test
+    void twoPlayersWithOneDieMatchTheClosedForm() {
+        OddsCalculator.Odds odds = OddsCalculator.forGame(2, 6, 1);
+        assertEquals(15.0 / 36, odds.getPlayerWinProbability(), EXACT);
+        assertEquals(30.0 / 36, odds.getSoleWinProbability(), EXACT);
+        assertEquals(6.0 / 36, odds.getTieProbability(), EXACT);
+        // P(max = v) = (v^2 - (v-1)^2) / 36
+        assertEquals(161.0 / 36, odds.getExpectedWinningRoll(), EXACT);
+    }
+
+    @Test
+    void knownTieAndSumProbabilities() {
+        assertEquals(1.0 / 36, OddsCalculator.forGame(3, 6, 1).tieProbability(3), EXACT);
+        assertEquals(1.0, OddsCalculator.forGame(1, 6, 1).getSoleWinProbability(), EXACT);
+        double[] twoDice = OddsCalculator.sumDistribution(6, 2);
+        assertEquals(6.0 / 36, twoDice[7], EXACT);
+        assertEquals(1.0 / 36, twoDice[12], EXACT);
+        double total = 0;
+        for (double p : OddsCalculator.sumDistribution(20, 5)) {
+            total += p;
+        }
+        assertEquals(1.0, total, 1e-9);
+    }
+
+    @Test
+    void seededSimulationAgreesWithTheExactOdds() {
+        ArrayList<Player> players = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            players.add(new Player("P" + i));
+        }
+        long rounds = 2_000_000;
+        GameEngine.SimulationSummary summary = new ParallelSimulator(players, 6, 2, 1234L, ForkJoinPool.commonPool()).simulate(rounds);
+        OddsCalculator.Odds odds = OddsCalculator.forGame(4, 6, 2);
+        // Binomial standard error at these rates is about 3e-4; 2e-3 is well over five of them.
+        for (int i = 0; i < 4; i++) {
+            assertEquals(odds.getPlayerWinProbability(), summary.getWinRate(i), 2e-3);
+        }
+        assertEquals(odds.getTieProbability(), summary.getTieRate(), 2e-3);
+    }
+
+    @Test
+    void distributionCacheIsBounded() {
+        for (int sides = 2; sides < 2 + 3 * OddsCalculator.MAX_CACHED_DISTRIBUTIONS; sides++) {
+            OddsCalculator.forGame(3, sides, 2);
+        }
+        assertTrue(OddsCalculator.cachedDistributions() <= OddsCalculator.MAX_CACHED_DISTRIBUTIONS);
+    }
+}
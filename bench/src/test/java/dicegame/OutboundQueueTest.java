@@ -0,0 +1,123 @@
+package dicegame;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+
+class OutboundQueueTest {
+    private static OutboundQueue.Message delta(String line) {
+        return OutboundQueue.Message.of("ROUND_RESULT", OutboundQueue.Delivery.DELTA, line, null);
+    }
+
+    private static List<String> drain(OutboundQueue queue) {
+        List<String> lines = new ArrayList<>();
+        OutboundQueue.Message message;
+        while ((message = queue.poll()) != null) {
+            String text = new String(message.bytes(false), StandardCharsets.UTF_8);
+            lines.add(text.substring(0, text.length() - 1));
+        }
+        return lines;
+    }
+
+    @Test
+    void coalesceReplacesOnlyLatestMessagesOfTheSameKind() {
+        OutboundQueue queue = new OutboundQueue(4, OutboundQueue.SlowConsumerPolicy.COALESCE);
+        assertTrue(queue.offer(OutboundQueue.Message.of("GAME_STARTED")));
+        assertTrue(queue.offer(OutboundQueue.Message.latest("PLAYER_COUNT:2")));
+        assertTrue(queue.offer(delta("DELTA:1;3,4;1")));
+        assertTrue(queue.offer(OutboundQueue.Message.latest("ROUND_RESULT:1;a:3:0,b:4:1")));
+
+        assertTrue(queue.offer(OutboundQueue.Message.latest("PLAYER_COUNT:3")));
+        // The queued delta shares the kind but must not be replaced.
+        assertTrue(queue.offer(OutboundQueue.Message.latest("ROUND_RESULT:2;a:6:1,b:1:1")));
+        assertTrue(queue.offer(OutboundQueue.Message.latest("TOP:1:a:1")));
+
+        assertEquals(2, queue.getCoalesced());
+        assertEquals(1, queue.getDropped());
+        assertEquals(List.of("GAME_STARTED", "PLAYER_COUNT:3", "DELTA:1;3,4;1", "ROUND_RESULT:2;a:6:1,b:1:1"), drain(queue));
+    }
+
+    @Test
+    void coalescedMessageKeepsItsPlaceAmongControlLines() {
+        OutboundQueue queue = new OutboundQueue(2, OutboundQueue.SlowConsumerPolicy.COALESCE);
+        assertTrue(queue.offer(OutboundQueue.Message.latest("PLAYER_COUNT:2")));
+        assertTrue(queue.offer(OutboundQueue.Message.latest("PLAYER_COUNT:3")));
+        assertTrue(queue.offer(OutboundQueue.Message.of("GAME_STARTED")));
+        assertTrue(queue.offer(OutboundQueue.Message.of("ROOM_JOINED:lobby")));
+        // Overwrites the newest PLAYER_COUNT, so the older one never follows a fresher count.
+        assertTrue(queue.offer(OutboundQueue.Message.latest("PLAYER_COUNT:4")));
+        assertEquals(List.of("PLAYER_COUNT:2", "PLAYER_COUNT:4", "GAME_STARTED", "ROOM_JOINED:lobby"), drain(queue));
+    }
+
+    @Test
+    void queueGrowsPastItsInitialRingAndKeepsOrder() {
+        OutboundQueue queue = new OutboundQueue(40, OutboundQueue.SlowConsumerPolicy.DROP);
+        List<String> expected = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            assertTrue(queue.offer(OutboundQueue.Message.of("LINE:" + i)));
+            queue.poll();
+        }
+        for (int i = 0; i < 40; i++) {
+            assertTrue(queue.offer(OutboundQueue.Message.of("LINE:" + i)));
+            expected.add("LINE:" + i);
+        }
+        assertEquals(expected, drain(queue));
+        assertTrue(queue.isEmpty());
+    }
+
+    @Test
+    void controlAndRosterMessagesAreQueuedPastCapacity() {
+        for (OutboundQueue.SlowConsumerPolicy policy
+                : new OutboundQueue.SlowConsumerPolicy[] {OutboundQueue.SlowConsumerPolicy.DROP, OutboundQueue.SlowConsumerPolicy.COALESCE}) {
+            OutboundQueue queue = new OutboundQueue(2, policy);
+            assertTrue(queue.offer(OutboundQueue.Message.latest("PLAYER_COUNT:2")));
+            assertTrue(queue.offer(OutboundQueue.Message.latest("ROUND_RESULT:1;a:3:0,b:4:1")));
+            assertTrue(queue.offer(OutboundQueue.Message.of("ROOM_JOINED:lobby")));
+            assertTrue(queue.offer(OutboundQueue.Message.of("PLAYERS", OutboundQueue.Delivery.ALWAYS, "ROSTER:0:a:0,1:b:1", null)));
+            // Twice the capacity is the hard limit.
+            assertFalse(queue.offer(OutboundQueue.Message.of("GAME_STARTED")));
+            assertEquals(List.of("PLAYER_COUNT:2", "ROUND_RESULT:1;a:3:0,b:4:1", "ROOM_JOINED:lobby", "ROSTER:0:a:0,1:b:1"),
+                    drain(queue));
+        }
+    }
+
+    @Test
+    void overflowingDeltaIsDroppedAndRemembered() {
+        OutboundQueue queue = new OutboundQueue(2, OutboundQueue.SlowConsumerPolicy.COALESCE);
+        assertTrue(queue.offer(delta("DELTA:1;3,4;1:1")));
+        assertTrue(queue.offer(delta("DELTA:2;6,1;0:1")));
+        assertFalse(queue.takeMissedDelta());
+        assertTrue(queue.offer(delta("DELTA:3;2,5;1:2")));
+        assertEquals(0, queue.getCoalesced());
+        assertEquals(1, queue.getDropped());
+        assertTrue(queue.takeMissedDelta());
+        assertFalse(queue.takeMissedDelta());
+        assertEquals(List.of("DELTA:1;3,4;1:1", "DELTA:2;6,1;0:1"), drain(queue));
+    }
+
+    @Test
+    void dropDiscardsNewLatestMessages() {
+        OutboundQueue queue = new OutboundQueue(1, OutboundQueue.SlowConsumerPolicy.DROP);
+        assertTrue(queue.offer(OutboundQueue.Message.latest("PLAYER_COUNT:2")));
+        assertTrue(queue.offer(OutboundQueue.Message.latest("PLAYER_COUNT:3")));
+        assertEquals(1, queue.getDropped());
+        assertEquals(List.of("PLAYER_COUNT:2"), drain(queue));
+    }
+
+    @Test
+    void disconnectPolicyRejectsEveryKindButTheProtocolSwitch() {
+        OutboundQueue queue = new OutboundQueue(1, OutboundQueue.SlowConsumerPolicy.DISCONNECT);
+        assertTrue(queue.offer(OutboundQueue.Message.latest("PLAYER_COUNT:2")));
+        assertFalse(queue.offer(OutboundQueue.Message.of("GAME_STARTED")));
+        assertFalse(queue.offer(OutboundQueue.Message.latest("PLAYER_COUNT:3")));
+        assertTrue(queue.offer(OutboundQueue.Message.switchToBinary("PROTOCOL:BIN1")));
+        assertEquals(List.of("PLAYER_COUNT:2", "PROTOCOL:BIN1"), drain(queue));
+        assertNull(queue.poll());
+    }
+}
@@ -0,0 +1,110 @@
+package dicegame;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class RoundHistoryTest {
+    @TempDir
+    Path dir;
+
+    private static GameEngine engine(int historyCapacity) {
+        ArrayList<Player> players = new ArrayList<>();
+        players.add(new Player("alice"));
+        players.add(new Player("bob"));
+        return new GameEngine(players, new Dice(Dice.Rng.SPLITTABLE, 3L), 1, historyCapacity);
+    }
+
+    private static long roundLines(List<String> lines) {
+        return lines.stream().filter(line -> line.startsWith("Round ")).count();
+    }
+
+    @Test
+    void reportWithoutAJournalSaysHowManyRoundsWereDiscarded() throws IOException {
+        GameEngine engine = engine(5);
+        for (int i = 0; i < 12; i++) {
+            engine.playRound();
+        }
+        assertEquals(7, engine.getHistory().getDiscardedRounds());
+        Path report = dir.resolve("report.txt");
+        engine.saveGameToFile(report.toString());
+        List<String> lines = Files.readAllLines(report);
+        assertTrue(lines.contains("Rounds: 12"));
+        assertTrue(lines.stream().anyMatch(line -> line.startsWith("Note: the first 7 rounds were discarded")));
+        assertEquals(5, roundLines(lines));
+    }
+
+    @Test
+    void completeReportHasNoTruncationNote() throws IOException {
+        GameEngine engine = engine(5);
+        engine.getHistory().spillTo(dir.resolve("spill.bin").toString());
+        for (int i = 0; i < 12; i++) {
+            engine.playRound();
+        }
+        assertEquals(0, engine.getHistory().getDiscardedRounds());
+        Path report = dir.resolve("report.txt");
+        engine.saveGameToFile(report.toString());
+        List<String> lines = Files.readAllLines(report);
+        assertFalse(lines.stream().anyMatch(line -> line.startsWith("Note:")));
+        assertEquals(12, roundLines(lines));
+    }
+
+    @Test
+    void rollsAbove16BitsAreKeptInMemoryAndInTheSpillFile() throws IOException {
+        ArrayList<Player> players = new ArrayList<>();
+        players.add(new Player("alice"));
+        players.add(new Player("bob"));
+        GameEngine engine = new GameEngine(players, new Dice(Dice.Rng.SPLITTABLE, 6L, 50_000), 3, 4);
+        engine.getHistory().spillTo(dir.resolve("wide.bin").toString());
+        List<String> expected = new ArrayList<>();
+        int[] lastRolls = new int[2];
+        for (int i = 0; i < 10; i++) {
+            GameEngine.GameResult result = engine.playRound();
+            lastRolls[0] = result.getRolls().get(0);
+            lastRolls[1] = result.getRolls().get(1);
+            expected.add("Round " + result.getRoundNumber() + ": alice rolled " + lastRolls[0] + ", bob rolled " + lastRolls[1] + ", ");
+        }
+        RoundHistory history = engine.getHistory();
+        assertEquals(lastRolls[0], history.getRoll(history.size() - 1, 0));
+        assertEquals(lastRolls[1], history.getRoll(history.size() - 1, 1));
+        List<String> lines = new ArrayList<>();
+        history.forEachLine(lines::add);
+        assertEquals(10, lines.size());
+        for (int i = 0; i < 10; i++) {
+            assertTrue(lines.get(i).startsWith(expected.get(i)), lines.get(i));
+        }
+    }
+
+    @Test
+    void journalAndInMemoryReportsAreIdentical() throws IOException {
+        GameEngine journaled = engine(RoundHistory.DEFAULT_CAPACITY);
+        GameEngine inMemory = engine(RoundHistory.DEFAULT_CAPACITY);
+        journaled.openJournal(dir.resolve("game.journal").toString());
+        for (int i = 0; i < 40; i++) {
+            journaled.playRound();
+            inMemory.playRound();
+        }
+        Path fromJournal = dir.resolve("journal.txt");
+        Path fromMemory = dir.resolve("memory.txt");
+        journaled.saveGameToFile(fromJournal.toString());
+        inMemory.saveGameToFile(fromMemory.toString());
+        journaled.closeJournal();
+        List<String> expected = withoutDate(Files.readAllLines(fromMemory));
+        assertTrue(expected.contains("Rounds: 40"));
+        assertEquals(expected, withoutDate(Files.readAllLines(fromJournal)));
+    }
+
+    private static List<String> withoutDate(List<String> lines) {
+        List<String> kept = new ArrayList<>(lines);
+        kept.removeIf(line -> line.startsWith("Date: "));
+        return kept;
+    }
+}
@@ -0,0 +1,174 @@
+package dicegame;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class RoundJournalTest {
+    @TempDir
+    Path dir;
+
+    private static ArrayList<Player> players(String... names) {
+        ArrayList<Player> players = new ArrayList<>();
+        for (String name : names) {
+            players.add(new Player(name));
+        }
+        return players;
+    }
+
+    @Test
+    void recoverRestoresTheGeneratorFromTheHeader() throws IOException {
+        String journal = dir.resolve("game.journal").toString();
+        String snapshot = dir.resolve("game.snapshot").toString();
+        GameEngine engine = new GameEngine(players("alice", "bob", "carl"), new Dice(Dice.Rng.XOSHIRO256, 11L), 1);
+        engine.enableSnapshots(snapshot, 40);
+        engine.openJournal(journal);
+        for (int i = 0; i < 100; i++) {
+            engine.playRound();
+        }
+        engine.closeJournal();
+
+        GameEngine recovered = GameEngine.recover(journal, snapshot, Dice.Rng.RANDOM);
+        assertEquals(Dice.Rng.XOSHIRO256, recovered.getDice().getRng());
+        assertEquals(100, recovered.getRoundNumber());
+        for (int i = 0; i < 3; i++) {
+            assertEquals(engine.getPlayers().get(i).showWins(), recovered.getPlayers().get(i).showWins());
+        }
+        recovered.closeJournal();
+    }
+
+    @Test
+    void version1JournalsStillOpen() throws IOException {
+        Path journal = dir.resolve("old.journal");
+        try (DataOutputStream out = new DataOutputStream(Files.newOutputStream(journal))) {
+            out.writeInt(RoundJournal.MAGIC);
+            out.writeShort(1);
+            out.writeInt(6);
+            out.writeInt(1);
+            out.writeInt(2);
+            for (String name : new String[] {"alice", "bob"}) {
+                byte[] bytes = name.getBytes(StandardCharsets.UTF_8);
+                out.writeShort(bytes.length);
+                out.write(bytes);
+            }
+            // One round: number 1, bob wins with 5 against 2.
+            out.write(new byte[] {4, 1, 2, 2, 5});
+        }
+        try (RoundJournal.Reader reader = new RoundJournal.Reader(journal.toString())) {
+            assertArrayEquals(new String[] {"alice", "bob"}, reader.getNames());
+            assertNull(reader.getRng());
+            assertTrue(reader.next());
+            assertEquals(1, reader.getWinnerIndex());
+            assertArrayEquals(new int[] {2, 5}, reader.getRolls());
+        }
+        GameEngine recovered = GameEngine.recover(journal.toString(), null, Dice.Rng.SPLITTABLE);
+        assertEquals(Dice.Rng.SPLITTABLE, recovered.getDice().getRng());
+        assertEquals(1, recovered.getPlayers().get(1).showWins());
+        recovered.closeJournal();
+    }
+
+    @Test
+    void namesLongerThanTheBufferRoundTrip() throws IOException {
+        String journal = dir.resolve("long.journal").toString();
+        String longName = "é".repeat(70_000);
+        ArrayList<Player> players = players("alice", longName, "x".repeat(40_000));
+        try (RoundJournal out = RoundJournal.create(journal, players, 6, 1, Dice.Rng.SPLITTABLE)) {
+            out.append(1, new int[] {3, 6, 1}, 1);
+        }
+        try (RoundJournal.Reader reader = new RoundJournal.Reader(journal)) {
+            assertArrayEquals(new String[] {"alice", longName, "x".repeat(40_000)}, reader.getNames());
+            assertEquals(Dice.Rng.SPLITTABLE, reader.getRng());
+            assertTrue(reader.next());
+            assertArrayEquals(new int[] {3, 6, 1}, reader.getRolls());
+        }
+    }
+
+    @Test
+    void roundsAreWrittenInBatches() throws IOException {
+        Path path = dir.resolve("batched.journal");
+        try (RoundJournal journal = RoundJournal.create(path.toString(), players("alice", "bob"), 6, 1, null)) {
+            long header = Files.size(path);
+            for (int i = 1; i < RoundJournal.DEFAULT_FLUSH_EVERY; i++) {
+                journal.append(i, new int[] {1, 2}, 1);
+            }
+            assertEquals(header, Files.size(path));
+            journal.append(RoundJournal.DEFAULT_FLUSH_EVERY, new int[] {1, 2}, 1);
+            assertEquals(journal.position(), Files.size(path));
+            journal.append(RoundJournal.DEFAULT_FLUSH_EVERY + 1, new int[] {1, 2}, 1);
+            journal.flush();
+            assertEquals(journal.position(), Files.size(path));
+        }
+        try (RoundJournal.Reader reader = new RoundJournal.Reader(path.toString())) {
+            assertNull(reader.getRng());
+            int rounds = 0;
+            while (reader.next()) rounds++;
+            assertEquals(RoundJournal.DEFAULT_FLUSH_EVERY + 1, rounds);
+        }
+    }
+
+    @Test
+    void corruptRecordLengthsEndTheJournal() throws IOException {
+        byte[][] tails = {
+            {(byte) 0xFF, (byte) 0xFF, (byte) 0xFF, (byte) 0xFF, 0x07, 1, 2, 3},
+            {(byte) 0xFF, (byte) 0xFF, (byte) 0xFF, (byte) 0xFF, (byte) 0xFF, (byte) 0xFF},
+            {0, 0, 0},
+        };
+        for (byte[] tail : tails) {
+            String journal = dir.resolve("corrupt.journal").toString();
+            GameEngine engine = new GameEngine(players("alice", "bob"), new Dice(Dice.Rng.SPLITTABLE, 8L), 1);
+            engine.openJournal(journal);
+            for (int i = 0; i < 10; i++) {
+                engine.playRound();
+            }
+            engine.getJournal().close();
+            long validLength = Files.size(Path.of(journal));
+            Files.write(Path.of(journal), tail, StandardOpenOption.APPEND);
+
+            GameEngine recovered = GameEngine.recover(journal, null, Dice.Rng.RANDOM);
+            assertEquals(10, recovered.getRoundNumber());
+            recovered.closeJournal();
+            assertEquals(validLength, Files.size(Path.of(journal)));
+        }
+    }
+
+    @Test
+    void recoverRestoresStatisticsFromTheSnapshot() throws IOException {
+        String journal = dir.resolve("stats.journal").toString();
+        String snapshot = dir.resolve("stats.snapshot").toString();
+        // With two dice per player the journal only has totals, so face counts must come from the snapshot.
+        GameEngine engine = new GameEngine(players("alice", "bob"), new Dice(Dice.Rng.SPLITTABLE, 5L), 2);
+        engine.enableSnapshots(snapshot, 50);
+        engine.openJournal(journal);
+        for (int i = 0; i < 120; i++) {
+            engine.playRound();
+        }
+        engine.closeJournal();
+
+        GameEngine recovered = GameEngine.recover(journal, snapshot, Dice.Rng.RANDOM);
+        GameStatistics.Snapshot expected = engine.getStatistics().snapshot();
+        GameStatistics.Snapshot actual = recovered.getStatistics().snapshot();
+        assertEquals(120, actual.getRounds());
+        assertEquals(expected.getTies(), actual.getTies());
+        assertEquals(expected.getChiSquare(), actual.getChiSquare());
+        for (int p = 0; p < 2; p++) {
+            assertArrayEquals(expected.getRollHistogram(p), actual.getRollHistogram(p));
+            assertEquals(expected.getLongestStreak(p), actual.getLongestStreak(p));
+            assertEquals(expected.getCurrentStreak(p), actual.getCurrentStreak(p));
+        }
+        for (int face = 1; face <= 6; face++) {
+            assertEquals(expected.getFaceCount(face), actual.getFaceCount(face));
+        }
+        recovered.closeJournal();
+    }
+}
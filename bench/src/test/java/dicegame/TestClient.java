@@ -0,0 +1,126 @@
+package dicegame;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+// A ClientConnection without a socket: messages stay in the outbound queue until the test reads them.
+class TestClient implements ClientConnection {
+    final OutboundQueue outbound;
+    private volatile String playerName;
+    private volatile GameRoom room;
+    private volatile boolean deltas;
+    private volatile boolean heartbeats;
+    private volatile long lastActivity = System.nanoTime();
+    private volatile boolean disconnected;
+
+    TestClient(String playerName) {
+        this(playerName, new OutboundQueue(OutboundQueue.DEFAULT_CAPACITY, OutboundQueue.SlowConsumerPolicy.COALESCE));
+    }
+
+    TestClient(String playerName, OutboundQueue outbound) {
+        this.playerName = playerName;
+        this.outbound = outbound;
+    }
+
+    // Drains the queue as text lines without the newline.
+    List<String> lines() {
+        List<String> lines = new ArrayList<>();
+        OutboundQueue.Message message;
+        while ((message = outbound.poll()) != null) {
+            String text = new String(message.bytes(false), StandardCharsets.UTF_8);
+            lines.add(text.substring(0, text.length() - 1));
+        }
+        return lines;
+    }
+
+    boolean isDisconnected() {
+        return disconnected;
+    }
+
+    void setLastActivity(long lastActivity) {
+        this.lastActivity = lastActivity;
+    }
+
+    @Override
+    public void send(OutboundQueue.Message message) {
+        if (!disconnected && !outbound.offer(message)) {
+            disconnected = true;
+        }
+    }
+
+    @Override
+    public boolean isBinary() {
+        return false;
+    }
+
+    @Override
+    public void enableBinary(String acknowledgement) {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public boolean wantsDeltas() {
+        return deltas;
+    }
+
+    @Override
+    public void enableDeltas() {
+        deltas = true;
+    }
+
+    @Override
+    public boolean wantsHeartbeats() {
+        return heartbeats;
+    }
+
+    @Override
+    public void enableHeartbeats() {
+        heartbeats = true;
+    }
+
+    @Override
+    public boolean takeMissedDelta() {
+        return outbound.takeMissedDelta();
+    }
+
+    @Override
+    public FloodControl.TokenBucket getRateLimit() {
+        return null;
+    }
+
+    @Override
+    public long getLastActivity() {
+        return lastActivity;
+    }
+
+    @Override
+    public void markActive() {
+        lastActivity = System.nanoTime();
+    }
+
+    @Override
+    public void disconnect() {
+        disconnected = true;
+    }
+
+    @Override
+    public String getPlayerName() {
+        return playerName;
+    }
+
+    @Override
+    public void setPlayerName(String playerName) {
+        this.playerName = playerName;
+    }
+
+    @Override
+    public GameRoom getRoom() {
+        return room;
+    }
+
+    @Override
+    public void setRoom(GameRoom room) {
+        this.room = room;
+    }
+}
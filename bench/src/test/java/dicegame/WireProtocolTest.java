@@ -0,0 +1,125 @@
+package dicegame;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import org.junit.jupiter.api.Test;
+
+class WireProtocolTest {
+    private static WireProtocol.Reader reader(byte[]... parts) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        for (byte[] part : parts) {
+            out.writeBytes(part);
+        }
+        return new WireProtocol.Reader(new ByteArrayInputStream(out.toByteArray()));
+    }
+
+    private static byte[] utf8(String text) {
+        return text.getBytes(StandardCharsets.UTF_8);
+    }
+
+    @Test
+    void readerSwitchesFromLinesToFrames() throws IOException {
+        WireProtocol.Reader in = reader(utf8("NAME_SET:böb\r\n" + WireProtocol.NEGOTIATE + "\n"),
+                WireProtocol.textFrame(utf8("PLAYER_COUNT:2\n")), WireProtocol.textFrame(utf8("PONG")));
+        assertEquals("NAME_SET:böb", in.readLine());
+        assertEquals(WireProtocol.NEGOTIATE, in.readLine());
+        ByteBuffer frame = in.readFrame();
+        assertEquals(WireProtocol.OP_TEXT, frame.get());
+        assertEquals("PLAYER_COUNT:2", StandardCharsets.UTF_8.decode(frame).toString());
+        frame = in.readFrame();
+        assertEquals(WireProtocol.OP_TEXT, frame.get());
+        assertEquals("PONG", StandardCharsets.UTF_8.decode(frame).toString());
+        assertNull(in.readFrame());
+    }
+
+    @Test
+    void readerReturnsTheLastLineWithoutNewline() throws IOException {
+        WireProtocol.Reader in = reader(utf8("PING\nPON"));
+        assertEquals("PING", in.readLine());
+        assertEquals("PON", in.readLine());
+        assertNull(in.readLine());
+    }
+
+    @Test
+    void readerRejectsBrokenFrames() {
+        byte[] frame = WireProtocol.textFrame(utf8("GAME_STARTED"));
+        assertThrows(EOFException.class, () -> reader(Arrays.copyOf(frame, frame.length - 1)).readFrame());
+        assertThrows(EOFException.class, () -> reader(new byte[] {(byte) 0x80}).readFrame());
+        assertThrows(IOException.class, () -> reader(new byte[] {0}).readFrame());
+        assertThrows(IOException.class, () -> reader(new byte[] {(byte) 0x80, (byte) 0x80, (byte) 0x80, (byte) 0x80, 0x10}).readFrame());
+    }
+
+    @Test
+    void playersAndRoundFramesDecodeAgainstTheRoster() throws IOException {
+        ArrayList<Player> players = new ArrayList<>();
+        for (String name : new String[] {"alice", "böb", "c:a,r;l"}) {
+            players.add(new Player(name));
+        }
+        GameEngine engine = new GameEngine(players, new Dice(Dice.Rng.SPLITTABLE, 9L), 1, 100);
+        for (int i = 0; i < 10; i++) {
+            engine.playRound();
+        }
+        ByteBuffer body = reader(WireProtocol.playersFrame(engine.getPlayers())).readFrame();
+        assertEquals(WireProtocol.OP_PLAYERS, body.get());
+        WireProtocol.Roster roster = WireProtocol.decodePlayers(body);
+        assertArrayEquals(new String[] {"alice", "böb", "c:a,r;l"}, roster.names);
+
+        for (int i = 0; i < 100; i++) {
+            GameEngine.GameResult result = engine.playRound();
+            body = reader(WireProtocol.roundFrame(result)).readFrame();
+            assertEquals(WireProtocol.OP_ROUND, body.get());
+            MultiplayerClient.RoundResult decoded = MultiplayerClient.decodeRoundFrame(body, roster);
+            assertEquals(result.getRoundNumber(), decoded.roundNumber);
+            assertArrayEquals(result.getRolls().stream().mapToInt(Integer::intValue).toArray(), decoded.rolls);
+            assertEquals(result.getWinnerIndex() < 0, decoded.tie);
+            for (int p = 0; p < players.size(); p++) {
+                assertEquals(engine.getPlayers().get(p).showWins(), decoded.wins[p]);
+            }
+        }
+    }
+
+    @Test
+    void roundFrameWithUnknownWinnerIsRejected() {
+        ByteBuffer body = ByteBuffer.allocate(8);
+        RoundJournal.putVarint(body, 1);
+        RoundJournal.putVarint(body, 3);
+        RoundJournal.putVarint(body, 1);
+        body.put((byte) 4).put((byte) 5).flip();
+        WireProtocol.Roster roster = new WireProtocol.Roster(2);
+        assertThrows(IOException.class, () -> MultiplayerClient.decodeRoundFrame(body, roster));
+    }
+
+    @Test
+    void rollsAboveAByteFallBackToText() {
+        ArrayList<Player> players = new ArrayList<>();
+        players.add(new Player("alice"));
+        players.add(new Player("bob"));
+        GameEngine engine = new GameEngine(players, new Dice(Dice.Rng.SPLITTABLE, 9L, 1000), 1, 100);
+        GameEngine.GameResult result;
+        do {
+            result = engine.playRound();
+        } while (result.getRolls().stream().allMatch(roll -> roll <= 0xFF));
+        assertNull(WireProtocol.roundFrame(result));
+    }
+
+    @Test
+    void escapedNamesRoundTrip() {
+        String name = "a%b:c,d;e\nf\rg";
+        StringBuilder escaped = new StringBuilder();
+        WireProtocol.appendEscaped(escaped, name);
+        assertTrue(escaped.toString().chars().noneMatch(c -> c == ':' || c == ',' || c == ';' || c == '\n' || c == '\r'));
+        assertEquals(name, WireProtocol.unescape(escaped.toString()));
+    }
+}